@@ -0,0 +1,45 @@
+package pl.pwr.thesis.web_event_application.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+import pl.pwr.thesis.web_event_application.service.interfaces.ArchiveService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class EventArchiveJob {
+
+    @Value("${archive.retention-days}")
+    private int retentionDays;
+
+    @Value("${archive.batch-size}")
+    private int batchSize;
+
+    private final EventRepository eventRepository;
+    private final ArchiveService archiveService;
+    private static final Logger logger = LoggerFactory.getLogger(EventArchiveJob.class);
+
+    public EventArchiveJob(EventRepository eventRepository, ArchiveService archiveService) {
+        this.eventRepository = eventRepository;
+        this.archiveService = archiveService;
+    }
+
+    // every batch is its own transaction, so row locks on events stay short
+    @Scheduled(cron = "${archive.cron}")
+    public void archiveEndedEvents() {
+        LocalDateTime endedBefore = LocalDateTime.now().minusDays(retentionDays);
+        int archivedEvents = 0;
+        List<Long> eventIds;
+        do {
+            eventIds = eventRepository.findEndedEventIds(endedBefore, PageRequest.of(0, batchSize));
+            archivedEvents += archiveService.archiveEvents(eventIds);
+        } while (eventIds.size() == batchSize);
+        logger.info("Archival finished, {} events ended before {} archived", archivedEvents, endedBefore);
+    }
+}
@@ -0,0 +1,41 @@
+package pl.pwr.thesis.web_event_application.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final HttpStatus status;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    public static CachedResponse ok(byte[] body) {
+        return new CachedResponse(HttpStatus.OK, Map.of(), body);
+    }
+
+    public static CachedResponse empty(HttpStatus status) {
+        return new CachedResponse(status, Map.of(), EMPTY_BODY);
+    }
+
+    public CachedResponse withHeader(String name, String value) {
+        return new CachedResponse(status, Map.of(name, value), body);
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        headers.forEach(builder::header);
+        if (body.length == 0) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,46 @@
+package pl.pwr.thesis.web_event_application.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+// passes everything through and keeps a copy, until the copy would exceed the limit
+public class CapturingOutputStream extends FilterOutputStream {
+
+    private final int maxCapturedBytes;
+    private ByteArrayOutputStream capture = new ByteArrayOutputStream();
+
+    public CapturingOutputStream(OutputStream out, int maxCapturedBytes) {
+        super(out);
+        this.maxCapturedBytes = maxCapturedBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        if (reserve(1)) {
+            capture.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (reserve(len)) {
+            capture.write(b, off, len);
+        }
+    }
+
+    public Optional<byte[]> captured() {
+        return Optional.ofNullable(capture).map(ByteArrayOutputStream::toByteArray);
+    }
+
+    private boolean reserve(int length) {
+        if (capture != null && capture.size() + length > maxCapturedBytes) {
+            capture = null;
+        }
+        return capture != null;
+    }
+}
@@ -0,0 +1,39 @@
+package pl.pwr.thesis.web_event_application.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// read-through cache of single events, missing ids are loaded together in one call
+@Component
+public class EventDtoCache {
+
+    private static final int MAX_CACHED_EVENTS = 10_000;
+    // bounds staleness of a load that raced with an invalidation
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(30);
+
+    private final Cache<Long, EventDto> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_EVENTS)
+            .expireAfterWrite(TIME_TO_LIVE)
+            .build();
+
+    // ids unknown to the loader are left out of the result and are not cached
+    public Map<Long, EventDto> getAll(Collection<Long> eventIds,
+                                      Function<Set<? extends Long>, Map<Long, EventDto>> loader) {
+        return cache.getAll(eventIds, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChange(EventCatalogueChange change) {
+        cache.invalidate(change.getEventId());
+    }
+}
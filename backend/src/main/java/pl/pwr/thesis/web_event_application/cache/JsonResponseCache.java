@@ -0,0 +1,117 @@
+package pl.pwr.thesis.web_event_application.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueVersion;
+
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// serialized responses of the public event endpoints, keyed by catalogue version and normalized parameters
+@Component
+public class JsonResponseCache {
+
+    public static final int MAX_ENTRY_BYTES = 4 * 1024 * 1024;
+    private static final long MAX_CACHED_BYTES = 64L * 1024 * 1024;
+    // "upcoming" and "today" windows move with the clock, so entries age out on their own as well
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private final CatalogueVersion catalogueVersion;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedResponse> cache = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_BYTES)
+            .weigher((String key, CachedResponse response) -> key.length() + response.getBody().length)
+            .expireAfterWrite(TIME_TO_LIVE)
+            .build();
+    private final Map<String, CompletableFuture<CachedResponse>> renderings = new ConcurrentHashMap<>();
+
+    public JsonResponseCache(CatalogueVersion catalogueVersion, ObjectMapper objectMapper) {
+        this.catalogueVersion = catalogueVersion;
+        this.objectMapper = objectMapper;
+    }
+
+    // a new catalogue version makes every older key unreachable
+    public String key(String endpoint, Object... parameters) {
+        StringJoiner key = new StringJoiner("&", catalogueVersion.current() + ":" + endpoint + "?", "");
+        for (Object parameter : parameters) {
+            key.add(parameter == null ? "" : URLEncoder.encode(parameter.toString(), StandardCharsets.UTF_8));
+        }
+        return key.toString();
+    }
+
+    // concurrent misses for the same key render the response once; the rendering runs outside the cache
+    // so a response above MAX_ENTRY_BYTES goes through put() and is served without being stored
+    public CachedResponse get(String key, Supplier<CachedResponse> renderer) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<CachedResponse> rendering = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> inFlight = renderings.putIfAbsent(key, rendering);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            CachedResponse response = renderer.get();
+            put(key, response);
+            rendering.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            rendering.completeExceptionally(e);
+            throw e;
+        } finally {
+            renderings.remove(key, rendering);
+        }
+    }
+
+    public Optional<CachedResponse> getIfPresent(String key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (response.getBody().length <= MAX_ENTRY_BYTES) {
+            cache.put(key, response);
+        }
+    }
+
+    public CachedResponse ok(Object body) {
+        try {
+            return CachedResponse.ok(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String normalizeText(String value) {
+        return value == null ? null : value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizeCategories(List<String> categories) {
+        if (categories == null) {
+            return null;
+        }
+        return String.join(",", categories.stream()
+                .map(category -> category.strip().toUpperCase(Locale.ROOT))
+                .distinct()
+                .sorted()
+                .toList());
+    }
+}
@@ -0,0 +1,151 @@
+package pl.pwr.thesis.web_event_application.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.pwr.thesis.web_event_application.entity.Address;
+import pl.pwr.thesis.web_event_application.entity.Category;
+import pl.pwr.thesis.web_event_application.entity.City;
+import pl.pwr.thesis.web_event_application.entity.Location;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.repository.CategoryRepository;
+import pl.pwr.thesis.web_event_application.repository.CityRepository;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.util.Optional;
+
+// reference rows by natural key; entries are detached copies whose associations are plain objects,
+// and are stored only once the transaction that found or saved them has committed
+@Component
+public class ReferenceDataCache {
+
+    private static final String KEY_SEPARATOR = "\u0000";
+
+    private final CityRepository cityRepository;
+    private final CategoryRepository categoryRepository;
+    private final Cache<EventCategory, Category> categories = Caffeine.newBuilder()
+            .maximumSize(EventCategory.values().length)
+            .build();
+    private final Cache<String, City> cities = Caffeine.newBuilder()
+            .maximumSize(5_000)
+            .build();
+    private final Cache<String, Address> addresses = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .build();
+    private final Cache<String, Location> locations = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .build();
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    public ReferenceDataCache(CityRepository cityRepository, CategoryRepository categoryRepository) {
+        this.cityRepository = cityRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    // categories and cities are few, addresses and locations fill up while scraping
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        categoryRepository.findAll().forEach(this::putCategory);
+        cityRepository.findAll().forEach(this::putCity);
+        logger.info("Reference data cache warmed with {} categories and {} cities",
+                categories.estimatedSize(), cities.estimatedSize());
+    }
+
+    public Optional<Category> category(EventCategory eventCategory) {
+        return Optional.ofNullable(categories.getIfPresent(eventCategory));
+    }
+
+    public Optional<City> city(String name) {
+        return Optional.ofNullable(cities.getIfPresent(key(name)));
+    }
+
+    public Optional<Address> address(City city, String street) {
+        return Optional.ofNullable(addresses.getIfPresent(city.getId() + KEY_SEPARATOR + key(street)));
+    }
+
+    public Optional<Location> location(Address address, String name) {
+        return Optional.ofNullable(locations.getIfPresent(address.getId() + KEY_SEPARATOR + key(name)));
+    }
+
+    public void putCategory(Category category) {
+        Category copy = new Category();
+        copy.setId(category.getId());
+        copy.setEventCategory(category.getEventCategory());
+        copy.setImage(category.getImage());
+        afterCommit(() -> categories.put(copy.getEventCategory(), copy));
+    }
+
+    // rows still waiting for coordinates are left out, callers update those in place
+    public void putCity(City city) {
+        if (hasNoCoordinates(city.getLatitude(), city.getLongitude())) {
+            return;
+        }
+        City copy = copyOf(city);
+        afterCommit(() -> cities.put(key(copy.getName()), copy));
+    }
+
+    public void putAddress(Address address, City city) {
+        Address copy = copyOf(address, city);
+        afterCommit(() -> addresses.put(city.getId() + KEY_SEPARATOR + key(copy.getStreet()), copy));
+    }
+
+    public void putLocation(Location location, Address address) {
+        if (hasNoCoordinates(location.getLatitude(), location.getLongitude())) {
+            return;
+        }
+        Location copy = Location.builder()
+                .id(location.getId())
+                .name(location.getName())
+                .address(copyOf(address, address.getCity()))
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .build();
+        afterCommit(() -> locations.put(address.getId() + KEY_SEPARATOR + key(copy.getName()), copy));
+    }
+
+    // a rolled back insert must not leave an id behind that does not exist in the database
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Address copyOf(Address address, City city) {
+        return Address.builder()
+                .id(address.getId())
+                .street(address.getStreet())
+                .city(copyOf(city))
+                .build();
+    }
+
+    private static City copyOf(City city) {
+        return City.builder()
+                .id(city.getId())
+                .name(city.getName())
+                .latitude(city.getLatitude())
+                .longitude(city.getLongitude())
+                .build();
+    }
+
+    private static boolean hasNoCoordinates(double latitude, double longitude) {
+        return latitude == 0 || longitude == 0;
+    }
+
+    // same comparison as the accent and case insensitive collation of the tables
+    private static String key(String text) {
+        return TextNormalizer.fold(text);
+    }
+}
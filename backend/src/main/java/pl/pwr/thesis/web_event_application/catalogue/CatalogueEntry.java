@@ -0,0 +1,27 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class CatalogueEntry {
+
+    private final Long eventId;
+    private final String cityName;
+    private final EventCategory category;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+
+    public static CatalogueEntry of(Event event) {
+        return new CatalogueEntry(event.getId(),
+                event.getLocation().getAddress().getCity().getName(),
+                event.getCategory().getEventCategory(),
+                event.getStartDate(),
+                event.getEndDate());
+    }
+}
@@ -0,0 +1,29 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.roaringbitmap.RoaringBitmap;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Getter
+@Builder(toBuilder = true)
+public class CatalogueFilter {
+
+    private final String cityName;
+    @Builder.Default
+    private final Collection<EventCategory> categories = List.of();
+    // ids matched by the search engine, null when there is no search term
+    private final RoaringBitmap matchingIds;
+    // events overlapping [from, to], either bound may be open
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public boolean isEmpty() {
+        return cityName == null && categories.isEmpty() && matchingIds == null
+                && from == null && to == null;
+    }
+}
@@ -0,0 +1,29 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CatalogueVersion {
+
+    // seeded from the clock, so versions keep increasing across restarts
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile Instant lastModified = Instant.now();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChange(EventCatalogueChange change) {
+        lastModified = Instant.now();
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    public Instant lastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,64 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.enums.EventTimeframe;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class DateWindow {
+
+    public static final DateWindow ALL = new DateWindow(null, null);
+
+    // events overlapping [from, to] match, null means the bound is open
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public static DateWindow upcoming() {
+        return new DateWindow(LocalDateTime.now(), null);
+    }
+
+    // an explicit from/to range wins over the named timeframe, which defaults to upcoming
+    public static DateWindow of(Optional<String> timeframe,
+                                Optional<LocalDate> fromDate,
+                                Optional<LocalDate> toDate) {
+        if (fromDate.isPresent() || toDate.isPresent()) {
+            LocalDateTime from = fromDate.map(LocalDate::atStartOfDay).orElse(null);
+            LocalDateTime to = toDate.map(date -> date.atTime(LocalTime.MAX)).orElse(null);
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("Date range starts after it ends");
+            }
+            return new DateWindow(from, to);
+        }
+
+        EventTimeframe eventTimeframe = timeframe
+                .map(value -> EventTimeframe.valueOf(value.toUpperCase()))
+                .orElse(EventTimeframe.UPCOMING);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+
+        return switch (eventTimeframe) {
+            case UPCOMING -> new DateWindow(now, null);
+            case TODAY -> new DateWindow(now, today.atTime(LocalTime.MAX));
+            case THIS_WEEKEND -> {
+                LocalDate sunday = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+                LocalDateTime saturdayStart = sunday.minusDays(1).atStartOfDay();
+                yield new DateWindow(now.isAfter(saturdayStart) ? now : saturdayStart,
+                        sunday.atTime(LocalTime.MAX));
+            }
+            case ALL -> ALL;
+        };
+    }
+
+    public boolean isUnbounded() {
+        return from == null && to == null;
+    }
+}
@@ -0,0 +1,321 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pwr.thesis.web_event_application.dto.list.FacetCountsDto;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.pagination.EventCursor;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+@Component
+public class EventBitmapIndex {
+
+    private final EventRepository eventRepository;
+    private final Map<Integer, CatalogueEntry> entries = new HashMap<>();
+    private final RoaringBitmap allEvents = new RoaringBitmap();
+    private final Map<EventCategory, RoaringBitmap> categoryBitmaps = new EnumMap<>(EventCategory.class);
+    // keyed by folded city name, display names kept aside for the facet output
+    private final Map<String, RoaringBitmap> cityBitmaps = new HashMap<>();
+    private final Map<String, String> cityNames = new HashMap<>();
+    // one bucket per day an event starts on and one per day it ends on
+    private final NavigableMap<LocalDate, RoaringBitmap> startDayBitmaps = new TreeMap<>();
+    private final NavigableMap<LocalDate, RoaringBitmap> endDayBitmaps = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // changes arriving while a rebuild reads the database, replayed on top of its result
+    private List<EventCatalogueChange> pendingChanges;
+    private static final Logger logger = LoggerFactory.getLogger(EventBitmapIndex.class);
+
+    public EventBitmapIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<CatalogueEntry> catalogueEntries;
+        try {
+            catalogueEntries = eventRepository.findAllCatalogueEntries();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            allEvents.clear();
+            categoryBitmaps.clear();
+            cityBitmaps.clear();
+            cityNames.clear();
+            startDayBitmaps.clear();
+            endDayBitmaps.clear();
+            catalogueEntries.forEach(this::addEntry);
+            pendingChanges.forEach(this::apply);
+            pendingChanges = null;
+            allEvents.runOptimize();
+            categoryBitmaps.values().forEach(RoaringBitmap::runOptimize);
+            cityBitmaps.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Bitmap index built with {} events, {} cities and {} start days",
+                catalogueEntries.size(), cityBitmaps.size(), startDayBitmaps.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChange(EventCatalogueChange change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            apply(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(EventCatalogueChange change) {
+        removeEntry(toBitmapId(change.getEventId()));
+        if (change.isSaved()) {
+            addEntry(CatalogueEntry.of(change.getEvent()));
+        }
+    }
+
+    // the returned bitmap is a private copy, callers may modify it
+    public RoaringBitmap resolve(CatalogueFilter filter) {
+        lock.readLock().lock();
+        try {
+            return resolveFilter(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FacetCountsDto countFacets(CatalogueFilter filter) {
+        lock.readLock().lock();
+        try {
+            // each facet ignores its own filter, so the other options of it stay selectable
+            RoaringBitmap categoryBase = resolveFilter(filter.toBuilder().categories(List.of()).build());
+            RoaringBitmap cityBase = resolveFilter(filter.toBuilder().cityName(null).build());
+
+            Map<EventCategory, Integer> categoryCounts = new EnumMap<>(EventCategory.class);
+            categoryBitmaps.forEach((category, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(bitmap, categoryBase);
+                if (count > 0) {
+                    categoryCounts.put(category, count);
+                }
+            });
+
+            Map<String, Integer> cityCounts = new HashMap<>();
+            cityBitmaps.forEach((key, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(bitmap, cityBase);
+                if (count > 0) {
+                    cityCounts.put(cityNames.get(key), count);
+                }
+            });
+
+            return new FacetCountsDto(categoryCounts, sortByCount(cityCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<Long> idsOnPage(RoaringBitmap eventIds, Pageable pageable) {
+        long from = Math.min(pageable.getOffset(), eventIds.getCardinality());
+        long to = Math.min(from + pageable.getPageSize(), eventIds.getCardinality());
+        List<Long> pageIds = new ArrayList<>();
+        for (long rank = from; rank < to; rank++) {
+            pageIds.add((long) eventIds.select((int) rank));
+        }
+        return pageIds;
+    }
+
+    // keyset page of the given events in (start date, id) order, starting after the cursor when one is given;
+    // only the start day buckets from the cursor on are read, so the cost does not grow with the depth
+    public List<Long> idsAfter(RoaringBitmap eventIds, Optional<EventCursor> after, int limit) {
+        Comparator<CatalogueEntry> order = Comparator.comparing(CatalogueEntry::getStartDate)
+                .thenComparing(CatalogueEntry::getEventId);
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, RoaringBitmap> days = after
+                    .map(cursor -> startDayBitmaps.tailMap(cursor.getStartDate().toLocalDate(), true))
+                    .orElse(startDayBitmaps);
+            List<Long> pageIds = new ArrayList<>();
+            for (RoaringBitmap dayBitmap : days.values()) {
+                List<CatalogueEntry> dayEntries = new ArrayList<>();
+                RoaringBitmap.and(dayBitmap, eventIds).forEach((int id) -> {
+                    CatalogueEntry entry = entries.get(id);
+                    if (after.isEmpty() || isAfter(entry, after.get())) {
+                        dayEntries.add(entry);
+                    }
+                });
+                dayEntries.sort(order);
+                for (CatalogueEntry entry : dayEntries) {
+                    pageIds.add(entry.getEventId());
+                    if (pageIds.size() == limit) {
+                        return pageIds;
+                    }
+                }
+            }
+            return pageIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isAfter(CatalogueEntry entry, EventCursor cursor) {
+        int byStartDate = entry.getStartDate().compareTo(cursor.getStartDate());
+        return byStartDate > 0 || (byStartDate == 0 && entry.getEventId() > cursor.getId());
+    }
+
+    private RoaringBitmap resolveFilter(CatalogueFilter filter) {
+        List<RoaringBitmap> clauses = new ArrayList<>();
+        if (filter.getMatchingIds() != null) {
+            clauses.add(filter.getMatchingIds());
+        }
+        if (filter.getCityName() != null) {
+            clauses.add(cityBitmaps.getOrDefault(cityKey(filter.getCityName()), new RoaringBitmap()));
+        }
+        if (!filter.getCategories().isEmpty()) {
+            clauses.add(FastAggregation.or(filter.getCategories().stream()
+                    .map(categoryBitmaps::get)
+                    .filter(Objects::nonNull)
+                    .iterator()));
+        }
+        if (filter.getTo() != null) {
+            clauses.add(startingUntil(filter.getTo()));
+        }
+        if (filter.getFrom() != null) {
+            clauses.add(endingFrom(filter.getFrom()));
+        }
+        if (clauses.isEmpty()) {
+            return allEvents.clone();
+        }
+
+        // intersect starting from the smallest clause
+        clauses.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap result = clauses.get(0).clone();
+        for (int i = 1; i < clauses.size() && !result.isEmpty(); i++) {
+            result.and(clauses.get(i));
+        }
+        return result;
+    }
+
+    private RoaringBitmap startingUntil(LocalDateTime to) {
+        LocalDate lastDay = to.toLocalDate();
+        RoaringBitmap bitmap = FastAggregation.or(startDayBitmaps.headMap(lastDay, true).values().iterator());
+        // buckets are whole days, so the boundary bucket is checked against exact times
+        removeWhere(bitmap, startDayBitmaps.get(lastDay), entry -> entry.getStartDate().isAfter(to));
+        return bitmap;
+    }
+
+    private RoaringBitmap endingFrom(LocalDateTime from) {
+        LocalDate firstDay = from.toLocalDate();
+        RoaringBitmap bitmap = FastAggregation.or(endDayBitmaps.tailMap(firstDay, true).values().iterator());
+        removeWhere(bitmap, endDayBitmaps.get(firstDay), entry -> entry.getEndDate().isBefore(from));
+        return bitmap;
+    }
+
+    private void removeWhere(RoaringBitmap bitmap, RoaringBitmap boundary, Predicate<CatalogueEntry> outside) {
+        if (boundary != null) {
+            boundary.forEach((int id) -> {
+                if (outside.test(entries.get(id))) {
+                    bitmap.remove(id);
+                }
+            });
+        }
+    }
+
+    private void addEntry(CatalogueEntry entry) {
+        int id = toBitmapId(entry.getEventId());
+        String cityKey = cityKey(entry.getCityName());
+        entries.put(id, entry);
+        allEvents.add(id);
+        categoryBitmaps.computeIfAbsent(entry.getCategory(), key -> new RoaringBitmap()).add(id);
+        cityBitmaps.computeIfAbsent(cityKey, key -> new RoaringBitmap()).add(id);
+        cityNames.putIfAbsent(cityKey, entry.getCityName());
+        startDayBitmaps.computeIfAbsent(entry.getStartDate().toLocalDate(), key -> new RoaringBitmap()).add(id);
+        endDayBitmaps.computeIfAbsent(entry.getEndDate().toLocalDate(), key -> new RoaringBitmap()).add(id);
+    }
+
+    private void removeEntry(int id) {
+        CatalogueEntry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        allEvents.remove(id);
+        removeFromBitmap(categoryBitmaps, entry.getCategory(), id);
+        String cityKey = cityKey(entry.getCityName());
+        if (removeFromBitmap(cityBitmaps, cityKey, id)) {
+            cityNames.remove(cityKey);
+        }
+        removeFromBitmap(startDayBitmaps, entry.getStartDate().toLocalDate(), id);
+        removeFromBitmap(endDayBitmaps, entry.getEndDate().toLocalDate(), id);
+    }
+
+    private static <K> boolean removeFromBitmap(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            return false;
+        }
+        bitmap.remove(id);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private static Map<String, Integer> sortByCount(Map<String, Integer> counts) {
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static String cityKey(String cityName) {
+        return TextNormalizer.fold(cityName).strip();
+    }
+
+    // event ids are auto increment values, well below the 32-bit range of the bitmaps
+    private static int toBitmapId(long eventId) {
+        return Math.toIntExact(eventId);
+    }
+}
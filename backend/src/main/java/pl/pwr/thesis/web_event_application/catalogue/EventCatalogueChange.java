@@ -0,0 +1,30 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.entity.Event;
+
+@Getter
+@AllArgsConstructor
+public class EventCatalogueChange {
+
+    public enum Type {
+        SAVED, DELETED
+    }
+
+    private final Type type;
+    private final long eventId;
+    private final Event event;
+
+    public static EventCatalogueChange saved(Event event) {
+        return new EventCatalogueChange(Type.SAVED, event.getId(), event);
+    }
+
+    public static EventCatalogueChange deleted(long eventId) {
+        return new EventCatalogueChange(Type.DELETED, eventId, null);
+    }
+
+    public boolean isSaved() {
+        return type == Type.SAVED;
+    }
+}
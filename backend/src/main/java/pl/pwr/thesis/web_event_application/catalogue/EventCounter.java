@@ -0,0 +1,148 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pwr.thesis.web_event_application.dto.list.EventCountsDto;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+public class EventCounter {
+
+    private final EventRepository eventRepository;
+    // guarded by this, readers only see the snapshots published from it
+    private Counts counts = new Counts();
+    // immutable counts of the last change, readers never take the lock
+    private volatile Snapshot snapshot = counts.snapshot();
+    // changes arriving while a reconciliation reads the database, replayed on top of its result
+    private List<EventCatalogueChange> pendingChanges;
+    private static final Logger logger = LoggerFactory.getLogger(EventCounter.class);
+
+    public EventCounter(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    // the fresh counts are built aside and swapped in whole, so readers see either the old or the new ones
+    @Scheduled(initialDelayString = "${event-count.reconcile-interval}",
+            fixedDelayString = "${event-count.reconcile-interval}")
+    public void reconcile() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        Counts reconciled = new Counts();
+        try {
+            eventRepository.findAllCatalogueEntries().forEach(reconciled::add);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            long countedBefore = counts.total;
+            pendingChanges.forEach(reconciled::apply);
+            pendingChanges = null;
+            counts = reconciled;
+            snapshot = counts.snapshot();
+            if (countedBefore != counts.total) {
+                logger.info("Event count reconciled from {} to {}", countedBefore, counts.total);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogueChange(EventCatalogueChange change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        counts.apply(change);
+        snapshot = counts.snapshot();
+    }
+
+    public long total() {
+        return snapshot.total;
+    }
+
+    public EventCountsDto counts() {
+        Snapshot current = snapshot;
+        return new EventCountsDto(current.total, current.categories, current.cities);
+    }
+
+    private static final class Snapshot {
+
+        private final long total;
+        private final Map<EventCategory, Long> categories;
+        private final Map<String, Long> cities;
+
+        private Snapshot(long total, Map<EventCategory, Long> categories, Map<String, Long> cities) {
+            this.total = total;
+            this.categories = categories;
+            this.cities = cities;
+        }
+    }
+
+    private static final class Counts {
+
+        // counted events by id, so repeated or replayed changes are applied only once
+        private final Map<Long, CatalogueEntry> entries = new HashMap<>();
+        private final Map<String, Long> cityCounts = new TreeMap<>();
+        private final Map<EventCategory, Long> categoryCounts = new EnumMap<>(EventCategory.class);
+        private long total;
+
+        private void apply(EventCatalogueChange change) {
+            remove(change.getEventId());
+            if (change.isSaved()) {
+                add(CatalogueEntry.of(change.getEvent()));
+            }
+        }
+
+        private void add(CatalogueEntry entry) {
+            if (entries.putIfAbsent(entry.getEventId(), entry) != null) {
+                return;
+            }
+            total++;
+            cityCounts.merge(entry.getCityName(), 1L, Long::sum);
+            categoryCounts.merge(entry.getCategory(), 1L, Long::sum);
+        }
+
+        private void remove(long eventId) {
+            CatalogueEntry entry = entries.remove(eventId);
+            if (entry == null) {
+                return;
+            }
+            total--;
+            decrement(cityCounts, entry.getCityName());
+            decrement(categoryCounts, entry.getCategory());
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(total,
+                    Collections.unmodifiableMap(new EnumMap<>(categoryCounts)),
+                    Collections.unmodifiableMap(new LinkedHashMap<>(cityCounts)));
+        }
+
+        private static <K> void decrement(Map<K, Long> counts, K key) {
+            counts.computeIfPresent(key, (ignored, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package pl.pwr.thesis.web_event_application.clustering;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+@Getter
+@AllArgsConstructor
+public class ClusterPoint {
+
+    private final Long eventId;
+    private final double latitude;
+    private final double longitude;
+    private final EventCategory category;
+
+    public static ClusterPoint of(Event event) {
+        return new ClusterPoint(event.getId(),
+                event.getLocation().getLatitude(),
+                event.getLocation().getLongitude(),
+                event.getCategory().getEventCategory());
+    }
+}
@@ -0,0 +1,288 @@
+package pl.pwr.thesis.web_event_application.clustering;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.dto.map.ClusterDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.MapViewport;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class MarkerClusterIndex {
+
+    public static final int MAX_CLUSTER_ZOOM = 16;
+    // grid cell of 64px on a 256px tile -> 4 cells per tile and axis
+    private static final int CELLS_PER_TILE_SHIFT = 2;
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+    private static final int CATEGORIES = EventCategory.values().length;
+
+    private final EventRepository eventRepository;
+    private final Map<Long, ClusterPoint> points = new HashMap<>();
+    private final List<Map<Long, Cell>> cellsByZoom = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // changes arriving while a rebuild reads the database, replayed on top of its result
+    private List<EventCatalogueChange> pendingChanges;
+    private static final Logger logger = LoggerFactory.getLogger(MarkerClusterIndex.class);
+
+    public MarkerClusterIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+        for (int zoom = 0; zoom <= MAX_CLUSTER_ZOOM; zoom++) {
+            cellsByZoom.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<ClusterPoint> clusterPoints;
+        try {
+            clusterPoints = eventRepository.findAllClusterPoints();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            points.clear();
+            cellsByZoom.forEach(Map::clear);
+            clusterPoints.forEach(this::addPoint);
+            pendingChanges.forEach(this::apply);
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Marker cluster index built with {} events", clusterPoints.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChange(EventCatalogueChange change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            apply(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(EventCatalogueChange change) {
+        removePoint(change.getEventId());
+        if (change.isSaved()) {
+            addPoint(ClusterPoint.of(change.getEvent()));
+        }
+    }
+
+    // eventIds limits the clusters to those events, null counts every indexed event
+    public List<ClusterDtoMap> findClusters(MapViewport viewport, Collection<EventCategory> categories,
+                                            RoaringBitmap eventIds) {
+        int zoom = Math.min(viewport.getZoom(), MAX_CLUSTER_ZOOM);
+        int gridSize = gridSize(zoom);
+        int minX = cellX(viewport.getMinLongitude(), gridSize);
+        int maxX = cellX(viewport.getMaxLongitude(), gridSize);
+        int minY = cellY(viewport.getMaxLatitude(), gridSize);
+        int maxY = cellY(viewport.getMinLatitude(), gridSize);
+        boolean[] selected = selectedCategories(categories);
+
+        List<ClusterDtoMap> clusters = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = cellsByZoom.get(zoom);
+            long visibleColumns = minX <= maxX ? maxX - minX + 1 : gridSize - minX + maxX + 1;
+            long visibleCells = visibleColumns * (maxY - minY + 1);
+
+            // small viewports probe the grid directly, large ones scan only the occupied cells
+            if (visibleCells < cells.size()) {
+                for (long column = 0; column < visibleColumns; column++) {
+                    long x = (minX + column) % gridSize;
+                    for (int y = minY; y <= maxY; y++) {
+                        addCluster(clusters, cells.get(x * gridSize + y), selected, eventIds);
+                    }
+                }
+            } else {
+                for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                    int x = (int) (entry.getKey() / gridSize);
+                    int y = (int) (entry.getKey() % gridSize);
+                    boolean xVisible = minX <= maxX ? x >= minX && x <= maxX : x >= minX || x <= maxX;
+                    if (xVisible && y >= minY && y <= maxY) {
+                        addCluster(clusters, entry.getValue(), selected, eventIds);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return clusters;
+    }
+
+    private void addCluster(List<ClusterDtoMap> clusters, Cell cell, boolean[] selected, RoaringBitmap eventIds) {
+        if (cell == null) {
+            return;
+        }
+        ClusterDtoMap cluster = eventIds == null || cell.isWithin(eventIds)
+                ? cell.toDto(selected)
+                : cell.toDto(selected, eventIds, points);
+        if (cluster != null) {
+            clusters.add(cluster);
+        }
+    }
+
+    private void addPoint(ClusterPoint point) {
+        points.put(point.getEventId(), point);
+        for (int zoom = 0; zoom <= MAX_CLUSTER_ZOOM; zoom++) {
+            cellsByZoom.get(zoom)
+                    .computeIfAbsent(cellKey(point, zoom), key -> new Cell())
+                    .add(point, 1);
+        }
+    }
+
+    private void removePoint(long eventId) {
+        ClusterPoint point = points.remove(eventId);
+        if (point == null) {
+            return;
+        }
+        for (int zoom = 0; zoom <= MAX_CLUSTER_ZOOM; zoom++) {
+            Map<Long, Cell> cells = cellsByZoom.get(zoom);
+            long key = cellKey(point, zoom);
+            Cell cell = cells.get(key);
+            if (cell != null && cell.add(point, -1) == 0) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private boolean[] selectedCategories(Collection<EventCategory> categories) {
+        boolean[] selected = new boolean[CATEGORIES];
+        for (EventCategory category : EventCategory.values()) {
+            selected[category.ordinal()] = categories.isEmpty() || categories.contains(category);
+        }
+        return selected;
+    }
+
+    private static int gridSize(int zoom) {
+        return 1 << (zoom + CELLS_PER_TILE_SHIFT);
+    }
+
+    private static long cellKey(ClusterPoint point, int zoom) {
+        int gridSize = gridSize(zoom);
+        return (long) cellX(point.getLongitude(), gridSize) * gridSize
+                + cellY(point.getLatitude(), gridSize);
+    }
+
+    private static int cellX(double longitude, int gridSize) {
+        double x = (longitude + 180) / 360;
+        return clampCell(x, gridSize);
+    }
+
+    private static int cellY(double latitude, int gridSize) {
+        double clamped = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(clamped));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return clampCell(y, gridSize);
+    }
+
+    private static int clampCell(double position, int gridSize) {
+        return Math.max(0, Math.min(gridSize - 1, (int) Math.floor(position * gridSize)));
+    }
+
+    private static class Cell {
+
+        private final int[] counts = new int[CATEGORIES];
+        private final double[] latitudeSums = new double[CATEGORIES];
+        private final double[] longitudeSums = new double[CATEGORIES];
+        private final RoaringBitmap eventIds = new RoaringBitmap();
+        private int total;
+
+        private int add(ClusterPoint point, int sign) {
+            int category = point.getCategory().ordinal();
+            if (sign > 0) {
+                eventIds.add(Math.toIntExact(point.getEventId()));
+            } else {
+                eventIds.remove(Math.toIntExact(point.getEventId()));
+            }
+            counts[category] += sign;
+            latitudeSums[category] += sign * point.getLatitude();
+            longitudeSums[category] += sign * point.getLongitude();
+            total += sign;
+            return total;
+        }
+
+        private ClusterDtoMap toDto(boolean[] selected) {
+            int count = 0;
+            double latitudeSum = 0;
+            double longitudeSum = 0;
+            Map<EventCategory, Integer> categoryCounts = new EnumMap<>(EventCategory.class);
+            for (EventCategory category : EventCategory.values()) {
+                int index = category.ordinal();
+                if (selected[index] && counts[index] > 0) {
+                    count += counts[index];
+                    latitudeSum += latitudeSums[index];
+                    longitudeSum += longitudeSums[index];
+                    categoryCounts.put(category, counts[index]);
+                }
+            }
+            if (count == 0) {
+                return null;
+            }
+            return new ClusterDtoMap(latitudeSum / count, longitudeSum / count, count, categoryCounts);
+        }
+
+        private boolean isWithin(RoaringBitmap allowedIds) {
+            return RoaringBitmap.andCardinality(eventIds, allowedIds) == total;
+        }
+
+        // only some events of the cell are allowed, so the cluster is summed up from their points
+        private ClusterDtoMap toDto(boolean[] selected, RoaringBitmap allowedIds, Map<Long, ClusterPoint> points) {
+            int[] allowedCounts = new int[CATEGORIES];
+            double latitudeSum = 0;
+            double longitudeSum = 0;
+            int count = 0;
+            for (int eventId : RoaringBitmap.and(eventIds, allowedIds)) {
+                ClusterPoint point = points.get((long) eventId);
+                int category = point.getCategory().ordinal();
+                if (selected[category]) {
+                    allowedCounts[category]++;
+                    latitudeSum += point.getLatitude();
+                    longitudeSum += point.getLongitude();
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return null;
+            }
+            Map<EventCategory, Integer> categoryCounts = new EnumMap<>(EventCategory.class);
+            for (EventCategory category : EventCategory.values()) {
+                if (allowedCounts[category.ordinal()] > 0) {
+                    categoryCounts.put(category, allowedCounts[category.ordinal()]);
+                }
+            }
+            return new ClusterDtoMap(latitudeSum / count, longitudeSum / count, count, categoryCounts);
+        }
+    }
+}
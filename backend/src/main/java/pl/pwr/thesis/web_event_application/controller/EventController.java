@@ -1,8 +1,14 @@
 package pl.pwr.thesis.web_event_application.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,13 +17,28 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.pwr.thesis.web_event_application.cache.CachedResponse;
+import pl.pwr.thesis.web_event_application.cache.CapturingOutputStream;
+import pl.pwr.thesis.web_event_application.cache.JsonResponseCache;
+import pl.pwr.thesis.web_event_application.catalogue.DateWindow;
+import pl.pwr.thesis.web_event_application.dto.CursorPage;
+import pl.pwr.thesis.web_event_application.dto.list.EventCountsDto;
 import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+import pl.pwr.thesis.web_event_application.dto.list.FacetCountsDto;
+import pl.pwr.thesis.web_event_application.dto.list.SuggestionDto;
+import pl.pwr.thesis.web_event_application.dto.map.ClusterDtoMap;
 import pl.pwr.thesis.web_event_application.dto.map.EventDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.MapViewport;
 import pl.pwr.thesis.web_event_application.entity.Event;
 import pl.pwr.thesis.web_event_application.scraper.EventReader;
+import pl.pwr.thesis.web_event_application.service.interfaces.ArchiveService;
 import pl.pwr.thesis.web_event_application.service.interfaces.EventService;
 import pl.pwr.thesis.web_event_application.service.interfaces.ReactionService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,16 +47,29 @@ import java.util.Optional;
 public class EventController {
 
     private final EventService eventService;
+    private final ArchiveService archiveService;
     private final ReactionService reactionService;
     private final EventReader eventReader;
+    private final JsonResponseCache responseCache;
+    private final ObjectWriter eventMapWriter;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 100;
     private static final Logger logger = LoggerFactory.getLogger(EventController.class);
 
     public EventController(EventService eventService,
+                           ArchiveService archiveService,
                            ReactionService reactionService,
-                           EventReader eventReader) {
+                           EventReader eventReader,
+                           JsonResponseCache responseCache,
+                           ObjectMapper objectMapper) {
         this.eventService = eventService;
+        this.archiveService = archiveService;
         this.reactionService = reactionService;
         this.eventReader = eventReader;
+        this.responseCache = responseCache;
+        this.eventMapWriter = objectMapper.writerFor(EventDtoMap.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping("/count")
@@ -50,13 +84,41 @@ public class EventController {
         }
     }
 
+    @GetMapping("/counts")
+    public ResponseEntity<EventCountsDto> fetchEventCounts() {
+        try {
+            return ResponseEntity.ok(eventService.fetchEventCounts());
+        } catch (Exception e) {
+            logger.error("Error in counting events per city and category", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<EventDto>> fetchEventsByIds(@RequestParam List<Long> ids) {
+        logger.info("Fetching batch of {} events", ids.size());
+        if (ids.size() > MAX_BATCH_SIZE) {
+            logger.warn("Batch of {} events exceeds limit of {}", ids.size(), MAX_BATCH_SIZE);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try {
+            List<EventDto> eventDtos = eventService.fetchEventsByIds(ids.stream().distinct().toList());
+            return checkFetchedData(eventDtos, "batch");
+        } catch (Exception e) {
+            logger.error("Error in fetching batch of events", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<EventDto> fetchEventById(@PathVariable long id) {
+    public ResponseEntity<byte[]> fetchEventById(@PathVariable long id) {
         logger.info("Fetching event with id {}", id);
         try {
-            Optional<EventDto> event = eventService.fetchEventById(id);
-            return event.map(ResponseEntity::ok).orElseGet(
-                    () -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+            return responseCache.get(responseCache.key("event", id), () -> eventService
+                    .fetchEventById(id)
+                    .map(responseCache::ok)
+                    .orElseGet(() -> CachedResponse.empty(HttpStatus.NOT_FOUND))
+            ).toResponseEntity();
         } catch (Exception e) {
             logger.error("Error in fetching event by id: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -64,45 +126,256 @@ public class EventController {
     }
 
     @GetMapping("/list")
-    public ResponseEntity<List<EventDto>> fetchAllEventsList(
+    public ResponseEntity<byte[]> fetchAllEventsList(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String cityName,
             @RequestParam(required = false) List<String> categories,
-            @RequestParam(required = false) String searchTerm
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor
     ) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            logger.warn("Invalid paging for events list, page: {}, size: {}", page, size);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
         try {
-            List<EventDto> eventDtos = eventService
-                    .fetchAllEventsList(page, size,
-                            Optional.ofNullable(cityName),
-                            Optional.ofNullable(categories),
-                            Optional.ofNullable(searchTerm));
-            return checkFetchedData(eventDtos, "list");
+            DateWindow dateWindow = toDateWindow(timeframe, from, to);
+            String city = cityName == null ? null : cityName.strip();
+            String key = responseCache.key("list", page, size,
+                    JsonResponseCache.normalizeText(city),
+                    JsonResponseCache.normalizeCategories(categories),
+                    JsonResponseCache.normalizeText(searchTerm),
+                    JsonResponseCache.normalizeText(timeframe), from, to, cursor);
+
+            return responseCache.get(key, () -> {
+                if (cursor != null) {
+                    return renderEventsListAfterCursor(cursor, size, city, categories, searchTerm, dateWindow);
+                }
+                List<EventDto> eventDtos = eventService
+                        .fetchAllEventsList(page, size,
+                                Optional.ofNullable(city),
+                                Optional.ofNullable(categories),
+                                Optional.ofNullable(searchTerm),
+                                dateWindow);
+                return renderFetchedData(eventDtos, "list");
+            }).toResponseEntity();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for events list: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             logger.error("Error in fetching events for list", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/archive")
+    public ResponseEntity<List<EventDto>> fetchArchivedEvents(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cityName
+    ) {
+        try {
+            List<EventDto> eventDtos = archiveService
+                    .fetchArchivedEvents(page, size, Optional.ofNullable(cityName));
+            return checkFetchedData(eventDtos, "archive");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for archived events: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            logger.error("Error in fetching archived events", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private CachedResponse renderEventsListAfterCursor(String cursor, int size,
+                                                       String cityName,
+                                                       List<String> categories,
+                                                       String searchTerm,
+                                                       DateWindow dateWindow) {
+        CursorPage<EventDto> eventPage = eventService
+                .fetchAllEventsListAfter(cursor, size,
+                        Optional.ofNullable(cityName),
+                        Optional.ofNullable(categories),
+                        Optional.ofNullable(searchTerm),
+                        dateWindow);
+        CachedResponse response = renderFetchedData(eventPage.getContent(), "list");
+        if (eventPage.getNextCursor() == null) {
+            return response;
+        }
+        return response.withHeader(NEXT_CURSOR_HEADER, eventPage.getNextCursor());
+    }
+
     @GetMapping("/map")
-    public ResponseEntity<List<EventDtoMap>> fetchAllEventsList(
+    public ResponseEntity<StreamingResponseBody> fetchAllEventsMap(
             @RequestParam(required = false) String cityName,
             @RequestParam(required = false) List<String> categories,
-            @RequestParam(required = false) String searchTerm
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Double minLatitude,
+            @RequestParam(required = false) Double maxLatitude,
+            @RequestParam(required = false) Double minLongitude,
+            @RequestParam(required = false) Double maxLongitude,
+            @RequestParam(required = false) Integer zoom
     ) {
+        Optional<MapViewport> viewport;
+        DateWindow dateWindow;
         try {
-            List<EventDtoMap> eventDtos = eventService
-                    .fetchAllEventsMap(
-                            Optional.ofNullable(cityName),
-                            Optional.ofNullable(categories),
-                            Optional.ofNullable(searchTerm));
-            return checkFetchedData(eventDtos, "map");
+            viewport = MapViewport.of(minLatitude, maxLatitude, minLongitude, maxLongitude, zoom);
+            dateWindow = toDateWindow(timeframe, from, to);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid map parameters: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        String city = cityName == null ? null : cityName.strip();
+        String key = responseCache.key("map",
+                JsonResponseCache.normalizeText(city),
+                JsonResponseCache.normalizeCategories(categories),
+                JsonResponseCache.normalizeText(searchTerm),
+                JsonResponseCache.normalizeText(timeframe), from, to,
+                minLatitude, maxLatitude, minLongitude, maxLongitude, zoom);
+
+        Optional<CachedResponse> cached = responseCache.getIfPresent(key);
+        if (cached.isPresent()) {
+            byte[] cachedBody = cached.get().getBody();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> outputStream.write(cachedBody));
+        }
+        try {
+            if (!eventService.hasEventsForMap(viewport, Optional.ofNullable(city),
+                    Optional.ofNullable(categories), Optional.ofNullable(searchTerm), dateWindow)) {
+                logger.warn("No events fetched from database for map!");
+                return ResponseEntity.noContent().build();
+            }
         } catch (Exception e) {
-            logger.error("Error in fetching events for list", e);
+            logger.error("Error in checking events for map", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+
+        // the streamed bytes are kept and cached, unless the payload grows too large
+        StreamingResponseBody body = outputStream -> {
+            CapturingOutputStream capturingStream =
+                    new CapturingOutputStream(outputStream, JsonResponseCache.MAX_ENTRY_BYTES);
+            try (JsonGenerator generator = eventMapWriter.createGenerator(capturingStream)) {
+                generator.writeStartArray();
+                eventService.fetchAllEventsMap(viewport,
+                        Optional.ofNullable(city),
+                        Optional.ofNullable(categories),
+                        Optional.ofNullable(searchTerm),
+                        dateWindow,
+                        eventDto -> writeEventDtoMap(generator, eventDto));
+                generator.writeEndArray();
+            } catch (Exception e) {
+                logger.error("Error in streaming events for map", e);
+                throw e;
+            }
+            capturingStream.captured()
+                    .ifPresent(bytes -> responseCache.put(key, CachedResponse.ok(bytes)));
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/map/clusters")
+    public ResponseEntity<List<ClusterDtoMap>> fetchEventClusters(
+            @RequestParam double minLatitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLongitude,
+            @RequestParam int zoom,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        try {
+            MapViewport viewport = MapViewport
+                    .of(minLatitude, maxLatitude, minLongitude, maxLongitude, zoom)
+                    .orElseThrow();
+            List<ClusterDtoMap> clusters = eventService
+                    .fetchEventClusters(viewport, Optional.ofNullable(categories),
+                            toDateWindow(timeframe, from, to));
+            return checkFetchedData(clusters, "map clusters");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for map clusters: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            logger.error("Error in fetching event clusters for map", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<FacetCountsDto> fetchFacetCounts(
+            @RequestParam(required = false) String cityName,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        try {
+            FacetCountsDto facetCounts = eventService.fetchFacetCounts(
+                    Optional.ofNullable(cityName),
+                    Optional.ofNullable(categories),
+                    Optional.ofNullable(searchTerm),
+                    toDateWindow(timeframe, from, to));
+            return ResponseEntity.ok(facetCounts);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid parameters for facet counts: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            logger.error("Error in counting event facets", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<SuggestionDto>> fetchSuggestions(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        try {
+            List<SuggestionDto> suggestions = eventService.suggest(prefix, limit);
+            if (suggestions.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(suggestions);
+        } catch (Exception e) {
+            logger.error("Error in fetching suggestions for prefix: {}", prefix, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private DateWindow toDateWindow(String timeframe, LocalDate from, LocalDate to) {
+        return DateWindow.of(Optional.ofNullable(timeframe),
+                Optional.ofNullable(from),
+                Optional.ofNullable(to));
+    }
+
+    private void writeEventDtoMap(JsonGenerator generator, EventDtoMap eventDto) {
+        try {
+            eventMapWriter.writeValue(generator, eventDto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CachedResponse renderFetchedData(List<?> events, String type) {
+        if (events.isEmpty()) {
+            logger.warn("No events fetched from database for {}!", type);
+            return CachedResponse.empty(HttpStatus.NO_CONTENT);
+        }
+        logger.info("Number of events fetched: {} for {} ", events.size(), type);
+        return responseCache.ok(events);
+    }
+
     private <T> ResponseEntity<List<T>> checkFetchedData(List<T> events, String type) {
         if (events.isEmpty()) {
             logger.warn("No events fetched from database for {}!", type);
@@ -0,0 +1,18 @@
+package pl.pwr.thesis.web_event_application.dto.list;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class EventCountsDto {
+
+    private long total;
+    private Map<EventCategory, Long> categories;
+    private Map<String, Long> cities;
+}
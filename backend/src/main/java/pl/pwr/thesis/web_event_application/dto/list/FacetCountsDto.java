@@ -0,0 +1,17 @@
+package pl.pwr.thesis.web_event_application.dto.list;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class FacetCountsDto {
+
+    private Map<EventCategory, Integer> categories;
+    private Map<String, Integer> cities;
+}
@@ -0,0 +1,15 @@
+package pl.pwr.thesis.web_event_application.dto.list;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import pl.pwr.thesis.web_event_application.enums.SuggestionType;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class SuggestionDto {
+
+    private String text;
+    private SuggestionType type;
+}
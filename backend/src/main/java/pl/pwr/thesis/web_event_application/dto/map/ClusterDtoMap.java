@@ -0,0 +1,19 @@
+package pl.pwr.thesis.web_event_application.dto.map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ClusterDtoMap {
+
+    private double latitude;
+    private double longitude;
+    private int count;
+    private Map<EventCategory, Integer> categories;
+}
@@ -0,0 +1,58 @@
+package pl.pwr.thesis.web_event_application.dto.map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Getter
+@AllArgsConstructor
+public class MapViewport {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 22;
+    // markers streamed for a viewport at zoom 0, doubling with every zoom level;
+    // overviews of large areas are meant to come from the clusters
+    private static final long MIN_ZOOM_EVENT_LIMIT = 500;
+
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+    private final int zoom;
+
+    public static Optional<MapViewport> of(Double minLatitude, Double maxLatitude,
+                                           Double minLongitude, Double maxLongitude,
+                                           Integer zoom) {
+        long boundsGiven = Stream.of(minLatitude, maxLatitude, minLongitude, maxLongitude)
+                .filter(bound -> bound != null)
+                .count();
+        if (boundsGiven == 0) {
+            return Optional.empty();
+        }
+        if (boundsGiven != 4) {
+            throw new IllegalArgumentException("Bounding box requires all of minLatitude, " +
+                    "maxLatitude, minLongitude and maxLongitude.");
+        }
+        if (minLatitude > maxLatitude || minLatitude < -90 || maxLatitude > 90) {
+            throw new IllegalArgumentException("Invalid latitude range: " + minLatitude + " - " + maxLatitude);
+        }
+        if (minLongitude < -180 || maxLongitude > 180) {
+            throw new IllegalArgumentException("Invalid longitude range: " + minLongitude + " - " + maxLongitude);
+        }
+        int zoomLevel = zoom == null ? MAX_ZOOM : zoom;
+        if (zoomLevel < MIN_ZOOM || zoomLevel > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be between " + MIN_ZOOM + " and " + MAX_ZOOM);
+        }
+        return Optional.of(new MapViewport(minLatitude, maxLatitude, minLongitude, maxLongitude, zoomLevel));
+    }
+
+    public int eventLimit() {
+        return (int) Math.min(Integer.MAX_VALUE, MIN_ZOOM_EVENT_LIMIT << zoom);
+    }
+
+    public boolean crossesAntimeridian() {
+        return minLongitude > maxLongitude;
+    }
+}
@@ -0,0 +1,42 @@
+package pl.pwr.thesis.web_event_application.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ended events moved out of the events table, they keep their original ids
+@Entity
+@Table(name = "archived_events")
+@NoArgsConstructor
+@Data
+public class ArchivedEvent {
+    @Id
+    @Column(name = "id")
+    private Long id;
+    @Column(name = "name")
+    private String name;
+    @Column(name = "description")
+    private String description;
+    @Column(name = "image")
+    private String image;
+    @Column(name = "start_date")
+    private LocalDateTime startDate;
+    @Column(name = "end_date")
+    private LocalDateTime endDate;
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id")
+    private Location location;
+    @ManyToOne
+    @JoinColumn(name = "category_id")
+    private Category category;
+}
@@ -0,0 +1,5 @@
+package pl.pwr.thesis.web_event_application.enums;
+
+public enum EventTimeframe {
+    UPCOMING, TODAY, THIS_WEEKEND, ALL
+}
@@ -0,0 +1,5 @@
+package pl.pwr.thesis.web_event_application.enums;
+
+public enum SuggestionType {
+    EVENT, LOCATION, CITY
+}
@@ -0,0 +1,19 @@
+package pl.pwr.thesis.web_event_application.geocode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// a stored geocoding answer, coordinates are null when the query had no usable match
+@Getter
+@AllArgsConstructor
+public class CachedGeocode {
+
+    private final double[] coordinates;
+    private final LocalDateTime resolvedAt;
+
+    public boolean isFound() {
+        return coordinates != null;
+    }
+}
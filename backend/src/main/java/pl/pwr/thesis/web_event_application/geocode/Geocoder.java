@@ -3,21 +3,34 @@ package pl.pwr.thesis.web_event_application.geocode;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import pl.pwr.thesis.web_event_application.repository.GeocodeCacheRepository;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.text.Normalizer;
-import java.util.Locale;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Service
 public class Geocoder {
@@ -26,10 +39,78 @@ public class Geocoder {
     private String apiKey;
     @Value("${geocoding.base.url}")
     private String baseUrl;
+    // addresses do not move, only answers without a match are asked again after a while
+    @Value("${geocoding.cache.negative-ttl-days}")
+    private int negativeTtlDays;
+    // quotas of the geocoding provider
+    @Value("${geocoding.max-concurrent-requests}")
+    private int maxConcurrentRequests;
+    @Value("${geocoding.requests-per-second}")
+    private int requestsPerSecond;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(20);
+    // answers are handled and cached off the HTTP client threads, holding at most this many pool connections
+    private static final int CACHE_THREADS = 2;
+
+    private final GeocodeCacheRepository geocodeCacheRepository;
+    private final ObjectMapper objectMapper;
+    // one client for all requests, so connections are pooled and reused
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    // identical queries already on their way share the pending answer
+    private final Map<String, CompletableFuture<double[]>> inFlight = new ConcurrentHashMap<>();
+    private RequestThrottle requestThrottle;
+    private ExecutorService cacheExecutor;
     private static final Logger logger = LoggerFactory.getLogger(Geocoder.class);
 
+    public Geocoder(GeocodeCacheRepository geocodeCacheRepository, ObjectMapper objectMapper) {
+        this.geocodeCacheRepository = geocodeCacheRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void createThrottle() {
+        requestThrottle = new RequestThrottle(maxConcurrentRequests, requestsPerSecond);
+        AtomicInteger threadNumber = new AtomicInteger();
+        cacheExecutor = Executors.newFixedThreadPool(CACHE_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "geocode-cache-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopCacheExecutor() {
+        cacheExecutor.shutdown();
+    }
+
     public double[] geocodeLocation(String city, String street) {
-        return geocodeLocation(city, street, false);
+        return geocodeLocationAsync(city, street).join();
+    }
+
+    // completes with null when no coordinates were found, never exceptionally
+    public CompletableFuture<double[]> geocodeLocationAsync(String city, String street) {
+        String key = cacheKey(city, street);
+        CompletableFuture<double[]> pending = new CompletableFuture<>();
+        CompletableFuture<double[]> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<double[]> resolution;
+        try {
+            resolution = resolve(city, street);
+        } catch (RuntimeException e) {
+            logger.error("Geocoding failed for city: {} and street: {}", city, street, e);
+            resolution = CompletableFuture.completedFuture(null);
+        }
+        resolution.whenComplete((coordinates, error) -> {
+            inFlight.remove(key, pending);
+            pending.complete(coordinates);
+        });
+        return pending;
     }
 
     private String createUrl(String city, String street) {
@@ -40,69 +121,114 @@ public class Geocoder {
         return String.format(baseUrl + "?query=%s&country=PL&lang=en", fullQuery);
     }
 
-    private double[] handleResponse(HttpResponse<String> response, boolean isFallback,
-                                    String originalCity, String apiUrl) throws JsonProcessingException {
+    private CompletableFuture<double[]> handleResponse(HttpResponse<String> response, String originalCity,
+                                                       String street, String apiUrl) throws JsonProcessingException {
         if (response.statusCode() == 200) {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(response.body());
-            JsonNode featureNode = rootNode.get("addresses");
-
-            if (featureNode != null && featureNode.isArray() && !featureNode.isEmpty()) {
-                JsonNode firstAddress = featureNode.get(0);
-                String responseCity = normalizeCityName(firstAddress.get("city").asText());
-
-                if (isCityNameMatch(originalCity, responseCity)
-                        || responseCity.toLowerCase().contains(originalCity.toLowerCase())) {
-                    double latitude = firstAddress.get("latitude").asDouble();
-                    double longitude = firstAddress.get("longitude").asDouble();
-                    return new double[]{latitude, longitude};
-                } else if (!isFallback) {
-                    return geocodeLocation(originalCity, "", true);
-                }
+            double[] coordinates = findMatchingCoordinates(response.body(), originalCity);
+            storeInCache(originalCity, street, coordinates);
+            if (coordinates != null) {
+                return CompletableFuture.completedFuture(coordinates);
             }
-            return geocodeLocation(originalCity, "", true);
+            return fallbackToCity(originalCity, street);
         } else {
             logger.error("Error in API request, status code: {}, response body: {}, URL: {}",
                     response.statusCode(), response.body(), apiUrl);
         }
-        return null;
+        return CompletableFuture.completedFuture(null);
     }
 
+    // a street without a match is retried as the city alone
+    private CompletableFuture<double[]> fallbackToCity(String city, String street) {
+        return street.isBlank()
+                ? CompletableFuture.completedFuture(null)
+                : geocodeLocationAsync(city, "");
+    }
 
-    private double[] geocodeLocation(String city, String street, boolean isFallback) {
-        try {
-            var apiUrl = createUrl(city, street);
+    private double[] findMatchingCoordinates(String responseBody, String originalCity) throws JsonProcessingException {
+        JsonNode rootNode = objectMapper.readTree(responseBody);
+        JsonNode featureNode = rootNode.get("addresses");
 
-            URI uri = URI.create(apiUrl);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(uri)
-                    .header("Authorization", apiKey)
-                    .GET()
-                    .build();
-            HttpClient client = HttpClient.newHttpClient();
+        if (featureNode != null && featureNode.isArray() && !featureNode.isEmpty()) {
+            JsonNode firstAddress = featureNode.get(0);
+            String responseCity = TextNormalizer.fold(firstAddress.get("city").asText());
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (isCityNameMatch(originalCity, responseCity)
+                    || responseCity.toLowerCase().contains(originalCity.toLowerCase())) {
+                double latitude = firstAddress.get("latitude").asDouble();
+                double longitude = firstAddress.get("longitude").asDouble();
+                return new double[]{latitude, longitude};
+            }
+        }
+        return null;
+    }
 
-            return handleResponse(response, isFallback, city, apiUrl);
+    private CompletableFuture<double[]> resolve(String city, String street) {
+        Optional<CachedGeocode> cachedGeocode = findInCache(city, street);
+        if (cachedGeocode.isPresent()) {
+            if (cachedGeocode.get().isFound()) {
+                return CompletableFuture.completedFuture(cachedGeocode.get().getCoordinates());
+            }
+            logger.debug("Geocoding of city: {} and street: {} failed recently, skipping request", city, street);
+            return fallbackToCity(city, street);
+        }
+
+        var apiUrl = createUrl(city, street);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", apiKey)
+                .GET()
+                .build();
+
+        return requestThrottle
+                .submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                // the cache upsert and the lookup of a city fallback block on JDBC
+                .thenComposeAsync(response -> {
+                    try {
+                        return handleResponse(response, city, street, apiUrl);
+                    } catch (JsonProcessingException e) {
+                        throw new CompletionException(e);
+                    }
+                }, cacheExecutor)
+                .exceptionally(e -> {
+                    logger.error("Exception during geocoding request: {}", e.getMessage());
+                    logger.error("Geocoding failed for city: {} and street: {}," +
+                            " returning default null", city, street);
+                    return null;
+                });
+    }
 
-        } catch (IOException | InterruptedException e) {
-            logger.error("Exception during geocoding request: {}", e.getMessage());
+    // negative answers older than the TTL count as missing, so the query is sent again
+    private Optional<CachedGeocode> findInCache(String city, String street) {
+        try {
+            LocalDateTime negativeExpiry = LocalDateTime.now().minusDays(negativeTtlDays);
+            return geocodeCacheRepository.find(cacheKey(city, street))
+                    .filter(cached -> cached.isFound() || cached.getResolvedAt().isAfter(negativeExpiry));
+        } catch (DataAccessException e) {
+            logger.warn("Geocode cache lookup failed for city: {} and street: {}", city, street, e);
+            return Optional.empty();
         }
+    }
 
-        logger.error("Geocoding failed for city: {} and street: {}," +
-                " returning default null", city, street);
-        return null;
+    private void storeInCache(String city, String street, double[] coordinates) {
+        try {
+            geocodeCacheRepository.save(cacheKey(city, street), coordinates);
+        } catch (DataAccessException e) {
+            logger.warn("Geocode cache update failed for city: {} and street: {}", city, street, e);
+        }
+    }
+
+    private static String cacheKey(String city, String street) {
+        return normalize(city) + "|" + normalize(street);
     }
 
-    private String normalizeCityName(String cityName) {
-        String normalized = Normalizer.normalize(cityName, Normalizer.Form.NFD)
-                .replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
-        return normalized.toLowerCase(Locale.ROOT);
+    private static String normalize(String text) {
+        return WHITESPACE.matcher(TextNormalizer.fold(text).strip()).replaceAll(" ");
     }
 
     private boolean isCityNameMatch(String originalCity, String responseCity) {
-        String normalizedOriginalCity = normalizeCityName(originalCity);
-        String normalizedResponseCity = normalizeCityName(responseCity);
+        String normalizedOriginalCity = TextNormalizer.fold(originalCity);
+        String normalizedResponseCity = TextNormalizer.fold(responseCity);
 
         if (normalizedOriginalCity.equals(normalizedResponseCity)) {
             return true;
@@ -0,0 +1,76 @@
+package pl.pwr.thesis.web_event_application.geocode;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// non-blocking limiter for an external API: at most maxConcurrent requests in flight,
+// and request starts spaced so the rate never exceeds requestsPerSecond
+class RequestThrottle {
+
+    private final int maxConcurrent;
+    private final long intervalNanos;
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int running;
+    private long nextStart;
+
+    RequestThrottle(int maxConcurrent, int requestsPerSecond) {
+        this.maxConcurrent = maxConcurrent;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            try {
+                request.get().whenComplete((value, error) -> {
+                    release();
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (RuntimeException e) {
+                release();
+                result.completeExceptionally(e);
+            }
+        };
+
+        synchronized (this) {
+            if (running >= maxConcurrent) {
+                waiting.add(start);
+                return result;
+            }
+            running++;
+        }
+        schedule(start);
+        return result;
+    }
+
+    // a finished request hands its slot straight to the next waiting one
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        schedule(next);
+    }
+
+    private void schedule(Runnable start) {
+        long delay;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long startAt = Math.max(now, nextStart);
+            nextStart = startAt + intervalNanos;
+            delay = startAt - now;
+        }
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(start);
+    }
+}
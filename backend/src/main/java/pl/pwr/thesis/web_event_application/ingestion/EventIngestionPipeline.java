@@ -0,0 +1,367 @@
+package pl.pwr.thesis.web_event_application.ingestion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.dto.SearchEventsResult;
+import pl.pwr.thesis.web_event_application.entity.Address;
+import pl.pwr.thesis.web_event_application.entity.Category;
+import pl.pwr.thesis.web_event_application.entity.City;
+import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.entity.Location;
+import pl.pwr.thesis.web_event_application.geocode.Geocoder;
+import pl.pwr.thesis.web_event_application.repository.IngestionRepository;
+import pl.pwr.thesis.web_event_application.service.interfaces.CategoryService;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// saves scraped events in stages: the batch is deduplicated in memory, reference rows are resolved set based
+// with asynchronous geocoding, then events are inserted in chunks of one transaction each on a bounded pool
+@Component
+public class EventIngestionPipeline {
+
+    private static final String KEY_SEPARATOR = "\u0000";
+
+    // every worker holds at most one pooled connection, keep it well below the Hikari maximum
+    @Value("${ingestion.parallelism}")
+    private int parallelism;
+
+    @Value("${ingestion.batch-size}")
+    private int batchSize;
+
+    private final CategoryService categoryService;
+    private final IngestionRepository ingestionRepository;
+    private final Geocoder geocoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private static final Logger logger = LoggerFactory.getLogger(EventIngestionPipeline.class);
+
+    public EventIngestionPipeline(CategoryService categoryService,
+                                  IngestionRepository ingestionRepository, Geocoder geocoder,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager) {
+        this.categoryService = categoryService;
+        this.ingestionRepository = ingestionRepository;
+        this.geocoder = geocoder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "event-ingestion-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    public SearchEventsResult ingest(List<Event> events) {
+        if (events.isEmpty()) {
+            logger.info("No events to save! The list is empty.");
+            return new SearchEventsResult(0, 0, List.of(), List.of());
+        }
+        logger.debug("Saving {} events to the database", events.size());
+        Set<Event> savedEvents = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        List<Event> pending = events.stream().filter(this::isComplete).toList();
+        pending = resolveCities(pending);
+        pending = resolveAddresses(pending);
+        pending = resolveLocations(pending);
+        pending = resolveCategories(pending);
+        insertEvents(pending, savedEvents);
+
+        List<Event> saved = events.stream().filter(savedEvents::contains).toList();
+        List<Event> notSaved = events.stream().filter(event -> !savedEvents.contains(event)).toList();
+        logger.info("Ingestion finished, {} events saved and {} not saved", saved.size(), notSaved.size());
+        return new SearchEventsResult(saved.size(), notSaved.size(), saved, notSaved);
+    }
+
+    private boolean isComplete(Event event) {
+        if (event.getName() == null || event.getStartDate() == null || event.getEndDate() == null) {
+            logger.warn("Event {} not saved! Name or dates are missing.", event.getName());
+            return false;
+        }
+        if (event.getCategory() == null) {
+            logger.warn("Event {} not saved! Category is missing.", event.getName());
+            return false;
+        }
+        Location location = event.getLocation();
+        Address address = location == null ? null : location.getAddress();
+        if (address == null || address.getCity() == null || location.getName() == null) {
+            logger.warn("Event {} not saved! Location or address is missing.", event.getName());
+            return false;
+        }
+        if (address.getStreet() == null || address.getStreet().isBlank()
+                || address.getCity().getName() == null || address.getCity().getName().isBlank()) {
+            logger.warn("Event {} not saved! Street or City is empty.", event.getName());
+            return false;
+        }
+        return true;
+    }
+
+    private List<Event> resolveCities(List<Event> events) {
+        Map<String, List<Event>> groups = group(events, event -> cityKey(cityOf(event)));
+        Map<String, City> cities = upsert(groups, this::cityOf, this::cityKey,
+                ingestionRepository::findCities, ingestionRepository::insertCities);
+        List<Event> resolved = assign(groups, cities, (event, city) -> event.getLocation().getAddress().setCity(city));
+
+        Set<City> failed = geocodeMissing(cities.values().stream().filter(city -> hasNoCoordinates(
+                        city.getLatitude(), city.getLongitude())).toList(),
+                city -> geocoder.geocodeLocationAsync(city.getName(), ""),
+                (city, coordinates) -> {
+                    city.setLatitude(coordinates[0]);
+                    city.setLongitude(coordinates[1]);
+                },
+                ingestionRepository::updateCityCoordinates);
+        return withoutFailed(resolved, failed, this::cityOf, "city");
+    }
+
+    private List<Event> resolveAddresses(List<Event> events) {
+        Map<String, List<Event>> groups = group(events, event -> addressKey(event.getLocation().getAddress()));
+        Map<String, Address> addresses = upsert(groups, event -> event.getLocation().getAddress(), this::addressKey,
+                ingestionRepository::findAddresses, ingestionRepository::insertAddresses);
+        return assign(groups, addresses, (event, address) -> {
+            // rows read back only reference their city by id
+            address.setCity(event.getLocation().getAddress().getCity());
+            event.getLocation().setAddress(address);
+        });
+    }
+
+    private List<Event> resolveLocations(List<Event> events) {
+        Map<String, List<Event>> groups = group(events, event -> locationKey(event.getLocation()));
+        Map<String, Location> locations = upsert(groups, Event::getLocation, this::locationKey,
+                ingestionRepository::findLocations, ingestionRepository::insertLocations);
+        List<Event> resolved = assign(groups, locations, (event, location) -> {
+            location.setAddress(event.getLocation().getAddress());
+            event.setLocation(location);
+        });
+
+        Set<Location> failed = geocodeMissing(locations.values().stream().filter(location -> hasNoCoordinates(
+                        location.getLatitude(), location.getLongitude())).toList(),
+                location -> geocoder.geocodeLocationAsync(
+                        location.getAddress().getCity().getName(), location.getAddress().getStreet()),
+                (location, coordinates) -> {
+                    location.setLatitude(coordinates[0]);
+                    location.setLongitude(coordinates[1]);
+                },
+                ingestionRepository::updateLocationCoordinates);
+        return withoutFailed(resolved, failed, Event::getLocation, "location");
+    }
+
+    // a handful of rows in total, resolved through the regular service
+    private List<Event> resolveCategories(List<Event> events) {
+        Map<String, List<Event>> groups = group(events, event -> String.valueOf(event.getCategory().getEventCategory()));
+        List<Event> resolved = new ArrayList<>();
+        groups.values().forEach(group -> {
+            try {
+                Category category = categoryService.findOrSaveCategory(group.get(0).getCategory());
+                group.forEach(event -> event.setCategory(category));
+                resolved.addAll(group);
+            } catch (Exception e) {
+                logger.error("Error when saving category: {}", group.get(0).getCategory().getEventCategory(), e);
+            }
+        });
+        return resolved;
+    }
+
+    // existing rows are found with IN queries, the missing ones are batch inserted and read back
+    private <T> Map<String, T> upsert(Map<String, List<Event>> groups,
+                                      Function<Event, T> candidate,
+                                      Function<T, String> rowKey,
+                                      Function<Collection<T>, List<T>> finder,
+                                      Consumer<Collection<T>> inserter) {
+        List<T> candidates = groups.values().stream().map(group -> candidate.apply(group.get(0))).toList();
+        Map<String, T> rows = new HashMap<>();
+        finder.apply(candidates).forEach(row -> rows.putIfAbsent(rowKey.apply(row), row));
+
+        List<T> missing = candidates.stream().filter(row -> !rows.containsKey(rowKey.apply(row))).toList();
+        if (!missing.isEmpty()) {
+            inserter.accept(missing);
+            finder.apply(missing).forEach(row -> rows.putIfAbsent(rowKey.apply(row), row));
+        }
+        return rows;
+    }
+
+    private <T> List<Event> assign(Map<String, List<Event>> groups, Map<String, T> rows, BiConsumer<Event, T> setter) {
+        List<Event> resolved = new ArrayList<>();
+        groups.forEach((key, group) -> {
+            T row = rows.get(key);
+            if (row == null) {
+                logger.error("Could not resolve row for {} event(s), first one: {}", group.size(), group.get(0).getName());
+                return;
+            }
+            group.forEach(event -> setter.accept(event, row));
+            resolved.addAll(group);
+        });
+        return resolved;
+    }
+
+    // geocoding requests are all started at once and throttled by the geocoder,
+    // the coordinates found are written back in one batch
+    private <T> Set<T> geocodeMissing(List<T> rows,
+                                      Function<T, CompletableFuture<double[]>> geocode,
+                                      BiConsumer<T, double[]> coordinatesSetter,
+                                      Consumer<Collection<T>> updater) {
+        List<CompletableFuture<double[]>> lookups = rows.stream().map(geocode).toList();
+
+        Set<T> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> geocoded = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            double[] coordinates = lookups.get(i).join();
+            if (coordinates == null) {
+                failed.add(rows.get(i));
+            } else {
+                coordinatesSetter.accept(rows.get(i), coordinates);
+                geocoded.add(rows.get(i));
+            }
+        }
+        updater.accept(geocoded);
+        return failed;
+    }
+
+    private <T> List<Event> withoutFailed(List<Event> events, Set<T> failed, Function<Event, T> row, String type) {
+        return events.stream().filter(event -> {
+            if (failed.contains(row.apply(event))) {
+                logger.warn("Geocoding failed for {} of event: {}, event not saved to database.", type, event.getName());
+                return false;
+            }
+            return true;
+        }).toList();
+    }
+
+    private void insertEvents(List<Event> events, Set<Event> savedEvents) {
+        // the unique_event key decides what is new, duplicates within the batch included
+        Map<String, Event> uniqueEvents = new LinkedHashMap<>();
+        events.forEach(event -> {
+            if (uniqueEvents.putIfAbsent(eventKey(event), event) != null) {
+                logger.warn("Event: {} not saved! It is duplicated in the scraped batch.", event.getName());
+            }
+        });
+        Set<String> existingKeys = ingestionRepository.findEvents(uniqueEvents.values()).stream()
+                .map(this::eventKey)
+                .collect(Collectors.toSet());
+        List<Event> newEvents = new ArrayList<>();
+        uniqueEvents.forEach((key, event) -> {
+            if (existingKeys.contains(key)) {
+                logger.warn("Event: {} not saved! It already exists in the database.", event.getName());
+            } else {
+                newEvents.add(event);
+            }
+        });
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < newEvents.size(); from += batchSize) {
+            List<Event> chunk = newEvents.subList(from, Math.min(from + batchSize, newEvents.size()));
+            chunks.add(CompletableFuture.runAsync(() -> insertChunk(chunk, savedEvents), executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+    }
+
+    // one transaction per chunk, a failing chunk is retried event by event to tell which ones failed
+    private void insertChunk(List<Event> chunk, Set<Event> savedEvents) {
+        try {
+            savedEvents.addAll(transactionTemplate.execute(status -> insertAndPublish(chunk)));
+        } catch (Exception chunkException) {
+            logger.warn("Chunk of {} events failed, saving them one by one", chunk.size(), chunkException);
+            for (Event event : chunk) {
+                event.setId(null);
+                try {
+                    savedEvents.addAll(transactionTemplate.execute(status -> insertAndPublish(List.of(event))));
+                } catch (Exception e) {
+                    logger.error("Error when saving event: {} to the database", event.getName(), e);
+                }
+            }
+        }
+    }
+
+    private List<Event> insertAndPublish(List<Event> events) {
+        ingestionRepository.insertEvents(events);
+        Map<String, Long> eventIds = new HashMap<>();
+        ingestionRepository.findEvents(events).forEach(row -> eventIds.putIfAbsent(eventKey(row), row.getId()));
+
+        List<Event> inserted = new ArrayList<>();
+        for (Event event : events) {
+            Long id = eventIds.get(eventKey(event));
+            if (id == null) {
+                logger.error("Event: {} was not found after inserting it", event.getName());
+                continue;
+            }
+            event.setId(id);
+            eventPublisher.publishEvent(EventCatalogueChange.saved(event));
+            inserted.add(event);
+        }
+        return inserted;
+    }
+
+    private City cityOf(Event event) {
+        return event.getLocation().getAddress().getCity();
+    }
+
+    // keys follow the unique keys of the tables, text compared the way the accent and case insensitive collation does
+    private String cityKey(City city) {
+        return key(city.getName());
+    }
+
+    private String addressKey(Address address) {
+        return address.getCity().getId() + KEY_SEPARATOR + key(address.getStreet());
+    }
+
+    private String locationKey(Location location) {
+        return location.getAddress().getId() + KEY_SEPARATOR + key(location.getName());
+    }
+
+    private String eventKey(Event event) {
+        return key(event.getName()) + KEY_SEPARATOR + event.getStartDate() + KEY_SEPARATOR
+                + event.getEndDate() + KEY_SEPARATOR + event.getLocation().getId();
+    }
+
+    private static boolean hasNoCoordinates(double latitude, double longitude) {
+        return latitude == 0 || longitude == 0;
+    }
+
+    private static Map<String, List<Event>> group(List<Event> events, Function<Event, String> keyFunction) {
+        Map<String, List<Event>> groups = new LinkedHashMap<>();
+        for (Event event : events) {
+            groups.computeIfAbsent(keyFunction.apply(event), key -> new ArrayList<>()).add(event);
+        }
+        return groups;
+    }
+
+    private static String key(String text) {
+        return TextNormalizer.fold(text);
+    }
+}
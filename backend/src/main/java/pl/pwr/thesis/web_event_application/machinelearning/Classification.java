@@ -0,0 +1,19 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.util.List;
+
+// the most probable category with its probability, every category passing the label threshold starting with
+// the most probable one, and the model version that predicted them
+@Getter
+@AllArgsConstructor
+public class Classification {
+
+    private final EventCategory category;
+    private final double confidence;
+    private final List<EventCategory> labels;
+    private final String modelVersion;
+}
@@ -0,0 +1,176 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import pl.pwr.thesis.web_event_application.entity.Category;
+import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.repository.ClassificationCacheRepository;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// assigns categories to parsed events before they are persisted; contents already classified by the current model
+// are answered from the classification cache, the rest is split into one slice per worker
+@Component
+public class EventClassificationStage {
+
+    // 0 uses every available core, inference is CPU bound
+    @Value("${classification.parallelism}")
+    private int parallelism;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EventClassifier eventClassifier;
+    private final ClassificationCacheRepository classificationCacheRepository;
+    private ExecutorService executor;
+    private static final Logger logger = LoggerFactory.getLogger(EventClassificationStage.class);
+
+    public EventClassificationStage(EventClassifier eventClassifier,
+                                    ClassificationCacheRepository classificationCacheRepository) {
+        this.eventClassifier = eventClassifier;
+        this.classificationCacheRepository = classificationCacheRepository;
+    }
+
+    @PostConstruct
+    void startExecutor() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "event-classification-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    // events that cannot be classified keep no category and are rejected by the ingestion;
+    // the classifications come in the order of the events, with every label above the threshold, null when missing
+    public List<Classification> classify(List<Event> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<String> contentHashes = new ArrayList<>(events.size());
+        Map<String, List<Event>> eventsByContent = new LinkedHashMap<>();
+        for (Event event : events) {
+            String contentHash = contentHash(event);
+            contentHashes.add(contentHash);
+            eventsByContent.computeIfAbsent(contentHash, key -> new ArrayList<>()).add(event);
+        }
+
+        Map<String, Classification> cached = findCached(new ArrayList<>(eventsByContent.keySet()));
+        List<String> misses = eventsByContent.keySet().stream()
+                .filter(contentHash -> !cached.containsKey(contentHash))
+                .toList();
+        Map<String, Classification> predicted = new ConcurrentHashMap<>();
+        if (!misses.isEmpty()) {
+            int sliceSize = (misses.size() + parallelism - 1) / parallelism;
+            List<CompletableFuture<Void>> slices = new ArrayList<>();
+            for (int from = 0; from < misses.size(); from += sliceSize) {
+                List<String> slice = misses.subList(from, Math.min(from + sliceSize, misses.size()));
+                slices.add(CompletableFuture.runAsync(
+                        () -> classifySlice(slice, eventsByContent, predicted), executor));
+            }
+            CompletableFuture.allOf(slices.toArray(CompletableFuture[]::new)).join();
+            saveCached(predicted);
+        }
+
+        cached.forEach((contentHash, classification) -> assign(eventsByContent.get(contentHash), classification));
+        predicted.forEach((contentHash, classification) -> assign(eventsByContent.get(contentHash), classification));
+        logger.info("Classified {} events in {} ms, {} of {} distinct contents answered by the cache",
+                events.size(), (System.nanoTime() - start) / 1_000_000, cached.size(), eventsByContent.size());
+
+        List<Classification> classifications = new ArrayList<>(events.size());
+        for (String contentHash : contentHashes) {
+            classifications.add(cached.containsKey(contentHash)
+                    ? cached.get(contentHash)
+                    : predicted.get(contentHash));
+        }
+        return classifications;
+    }
+
+    // the events of one content share the text, so the first one stands for all of them
+    private void classifySlice(List<String> contentHashes, Map<String, List<Event>> eventsByContent,
+                               Map<String, Classification> predicted) {
+        List<Event> events = contentHashes.stream()
+                .map(contentHash -> eventsByContent.get(contentHash).get(0))
+                .toList();
+        List<Classification> classifications;
+        try {
+            classifications = eventClassifier.predict(events);
+        } catch (RuntimeException e) {
+            logger.error("Error in classifying a slice of {} events", events.size(), e);
+            return;
+        }
+        for (int i = 0; i < contentHashes.size(); i++) {
+            predicted.put(contentHashes.get(i), classifications.get(i));
+        }
+    }
+
+    private static void assign(List<Event> events, Classification classification) {
+        for (Event event : events) {
+            Category category = new Category();
+            category.setEventCategory(classification.getCategory());
+            event.setCategory(category);
+        }
+    }
+
+    // answers of a previous model count as missing, they are replaced once the current model has answered
+    private Map<String, Classification> findCached(List<String> contentHashes) {
+        try {
+            return classificationCacheRepository.findAll(contentHashes, eventClassifier.modelVersion());
+        } catch (DataAccessException e) {
+            logger.warn("Classification cache lookup failed, classifying all {} contents", contentHashes.size(), e);
+            return Map.of();
+        }
+    }
+
+    private void saveCached(Map<String, Classification> classifications) {
+        try {
+            classificationCacheRepository.saveAll(classifications);
+        } catch (DataAccessException e) {
+            logger.warn("Classification cache update failed for {} contents", classifications.size(), e);
+        }
+    }
+
+    // accents, case and runs of whitespace do not change the prediction enough to classify again
+    static String contentHash(Event event) {
+        String content = normalize(event.getName()) + "\u0000" + normalize(event.getDescription());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(TextNormalizer.fold(text).strip()).replaceAll(" ");
+    }
+}
@@ -1,106 +1,137 @@
 package pl.pwr.thesis.web_event_application.machinelearning;
 
-import opennlp.tools.doccat.DoccatFactory;
+import jakarta.annotation.PostConstruct;
 import opennlp.tools.doccat.DoccatModel;
-import opennlp.tools.doccat.DocumentCategorizerME;
-import opennlp.tools.doccat.DocumentSample;
-import opennlp.tools.doccat.DocumentSampleStream;
-import opennlp.tools.util.ObjectStream;
-import opennlp.tools.util.PlainTextByLineStream;
-import opennlp.tools.util.TrainingParameters;
-
-import java.io.File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+// models published by ModelTrainingJob are picked up while running and replace the current one in a single swap,
+// whichever TextClassifier implementation they are
+@Component
 public class EventClassifier {
 
-    private static final Path MODEL_FILE_PATH = Paths.get("backend/src/main/resources/model/event_classifier_model.bin");
-
-    public static void main(String[] args) throws IOException {
-        predictCategory("","");
+    private static final String MODEL_RESOURCE = "/model/event_classifier_model.bin";
+    private static final String BUNDLED_VERSION = "bundled";
+
+    // empty keeps the model bundled in the resources
+    @Value("${classification.model-dir}")
+    private String modelDirectory;
+    // further categories whose probability reaches it are reported as labels next to the best one
+    @Value("${classification.label-threshold}")
+    private double labelThreshold;
+    private final AtomicReference<TextClassifier> current = new AtomicReference<>();
+    private static final Logger logger = LoggerFactory.getLogger(EventClassifier.class);
+
+    @PostConstruct
+    void loadModel() {
+        try {
+            if (!reloadIfNewer()) {
+                current.set(new MaxentTextClassifier(BUNDLED_VERSION, readBundledModel()));
+                logger.info("Loaded event classifier model from resources");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Event classifier model could not be loaded", e);
+        }
     }
 
-    public static String predictCategory(String description, String eventName) throws IOException {
-        DoccatModel model = readModel();
-
-        if (model == null) {
-            model = trainModel();
-            writeModel(model);
+    // the new model is read on the scheduler thread, predictions keep using the previous one until the swap
+    @Scheduled(initialDelayString = "${classification.model-poll-interval}",
+            fixedDelayString = "${classification.model-poll-interval}")
+    void pollModelDirectory() {
+        try {
+            reloadIfNewer();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Event classifier model could not be reloaded, keeping version {}", modelVersion(), e);
         }
-        DocumentCategorizerME categorizer = new DocumentCategorizerME(model);
+    }
 
-        String[] tokens = (eventName + " " + description).split("\\s+");
-        double[] outcomes = categorizer.categorize(tokens);
-        String category = categorizer.getBestCategory(outcomes);
+    public String modelVersion() {
+        TextClassifier classifier = current.get();
+        return classifier != null ? classifier.version() : null;
+    }
 
-        System.out.println("Event description: " + " " + eventName + " " + description);
-        System.out.println("Predicted Category: " + category);
+    // the model is read once, so the version always belongs to the model that made the prediction
+    public Classification classify(String description, String eventName) {
+        return classify(current.get(), description, eventName);
+    }
 
-        System.out.println("Probability percentage for each category:");
-        for (int i = 0; i < categorizer.getNumberOfCategories(); i++) {
-            System.out.printf("%s: %.2f%%\n", categorizer.getCategory(i), outcomes[i] * 100);
+    // predictions in the order of the given events, the whole batch is answered by the same model
+    // even when a new one is swapped in meanwhile
+    public List<Classification> predict(List<Event> events) {
+        TextClassifier classifier = current.get();
+        List<Classification> classifications = new ArrayList<>(events.size());
+        for (Event event : events) {
+            classifications.add(classify(classifier, event.getDescription(), event.getName()));
         }
-
-        return category;
+        return classifications;
     }
 
-    private static DoccatModel readModel() {
-        try (InputStream modelIn = EventClassifier.class.getResourceAsStream("/model/event_classifier_model.bin")) {
-            if (modelIn != null) {
-                System.out.println("Loaded model from resources.");
-                return new DoccatModel(modelIn);
-            } else {
-                System.err.println("Model not found in resources; training a new model.");
-                return null;
+    private Classification classify(TextClassifier classifier, String description, String eventName) {
+        double[] probabilities = classifier.probabilities(eventName + " " + description);
+        List<EventCategory> categories = classifier.categories();
+
+        int best = 0;
+        for (int i = 1; i < probabilities.length; i++) {
+            if (probabilities[i] > probabilities[best]) {
+                best = i;
+            }
+        }
+        List<EventCategory> labels = new ArrayList<>();
+        labels.add(categories.get(best));
+        for (int i = 0; i < probabilities.length; i++) {
+            if (i != best && probabilities[i] >= labelThreshold) {
+                labels.add(categories.get(i));
             }
-        } catch (IOException e) {
-            System.err.println("Failed to load model: " + e.getMessage());
-            return null;
         }
-    }
-
-    private static void writeModel(DoccatModel model) {
-        File saveFile = MODEL_FILE_PATH.toFile();
-        saveFile.getParentFile().mkdirs();
 
-        try (FileOutputStream fileOut = new FileOutputStream(saveFile)) {
-            model.serialize(fileOut);
-            System.out.println("Model saved to " + MODEL_FILE_PATH);
-        } catch (IOException e) {
-            System.err.println("Failed to save model: " + e.getMessage());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Predicted categories {} for event: {}, probabilities: {} of {}",
+                    labels, eventName, probabilities, categories);
         }
+        return new Classification(categories.get(best), probabilities[best], labels, classifier.version());
     }
 
-    private static DoccatModel trainModel() throws IOException {
-        try (InputStream dataIn = EventClassifier.class.getResourceAsStream("/event_data.train")) {
-            ObjectStream<DocumentSample> sampleStream = getDocumentSampleObjectStream(dataIn);
-
-            DoccatFactory factory = new DoccatFactory();
-            TrainingParameters mlParams = new TrainingParameters();
-            mlParams.put(TrainingParameters.CUTOFF_PARAM, "1");
-
-            System.out.println("Training a new model...");
-            return DocumentCategorizerME.train("en", sampleStream, mlParams, factory);
+    private boolean reloadIfNewer() throws IOException {
+        if (modelDirectory.isBlank()) {
+            return false;
+        }
+        Path directory = Path.of(modelDirectory);
+        Optional<String> latestVersion = ModelArtifacts.latestVersion(directory);
+        TextClassifier classifier = current.get();
+        if (latestVersion.isEmpty() || (classifier != null && latestVersion.get().equals(classifier.version()))) {
+            return false;
         }
+
+        String version = latestVersion.get();
+        TextClassifier newClassifier = ModelArtifacts.readModel(directory, version);
+        current.set(newClassifier);
+        logger.info("Switched event classifier to {} model version {}, held out accuracy {}",
+                newClassifier.type(), version,
+                ModelArtifacts.readMetrics(directory, version).getProperty("heldOutAccuracy", "unknown"));
+        return true;
     }
 
-    private static ObjectStream<DocumentSample> getDocumentSampleObjectStream(InputStream dataIn)
-            throws IOException {
-        if (dataIn == null) {
-            throw new FileNotFoundException("Training file not found in resources: /event_data.train");
+    private static DoccatModel readBundledModel() throws IOException {
+        try (InputStream modelIn = EventClassifier.class.getResourceAsStream(MODEL_RESOURCE)) {
+            if (modelIn == null) {
+                throw new FileNotFoundException("Model not found in resources: " + MODEL_RESOURCE);
+            }
+            return new DoccatModel(modelIn);
         }
-
-        ObjectStream<String> lineStream = new PlainTextByLineStream(() -> dataIn, StandardCharsets.UTF_8);
-        ObjectStream<String> formattedLineStream = () -> {
-            String line = lineStream.read();
-            return (line != null) ? line.replace("\\t", "\t") : null;
-        };
-        return new DocumentSampleStream(formattedLineStream);
     }
 }
@@ -0,0 +1,314 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// fastText style linear model: word unigrams and bigrams are hashed into a fixed number of buckets holding one
+// weight per category, and a category's score is its bias plus the weights of the features of the text
+// scaled to unit length (one over the square root of the feature count);
+// every category is a separate logistic regression, so a text can belong to several of them, and the scores
+// are divided by a temperature fitted on calibration samples kept out of the training, so the probabilities
+// match observed frequencies
+final class HashedLinearClassifier implements TextClassifier {
+
+    static final String TYPE = "linear";
+    private static final int FORMAT_MAGIC = 0x4556434C;
+    private static final int FORMAT_VERSION = 1;
+    // 65536 buckets keep the weights of a few categories within the processor caches
+    private static final int BUCKET_COUNT = 1 << 16;
+    private static final int EPOCHS = 50;
+    private static final double LEARNING_RATE = 1.0;
+    private static final long TRAINING_SEED = 42;
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int BIGRAM_MULTIPLIER = 116_049_371;
+    // lower case without accents for every Latin-1 and Latin Extended-A character, others are only lower cased
+    private static final char[] FOLDED = foldTable();
+
+    private final String version;
+    private final List<EventCategory> categories;
+    private final int bucketCount;
+    // weights[bucket * categories + category]
+    private final float[] weights;
+    private final float[] biases;
+    private final double temperature;
+    private final ThreadLocal<int[]> featureBuffer = ThreadLocal.withInitial(() -> new int[1024]);
+
+    private HashedLinearClassifier(String version, List<EventCategory> categories, int bucketCount,
+                                   float[] weights, float[] biases, double temperature) {
+        this.version = version;
+        this.categories = List.copyOf(categories);
+        this.bucketCount = bucketCount;
+        this.weights = weights;
+        this.biases = biases;
+        this.temperature = temperature;
+    }
+
+    // stochastic gradient descent on the logistic loss with a linearly decaying learning rate
+    static HashedLinearClassifier train(String version, List<LabeledText> samples, List<LabeledText> calibration) {
+        List<EventCategory> categories = samples.stream()
+                .flatMap(sample -> sample.getLabels().stream())
+                .distinct()
+                .sorted()
+                .toList();
+        int categoryCount = categories.size();
+        float[] weights = new float[BUCKET_COUNT * categoryCount];
+        float[] biases = new float[categoryCount];
+
+        int[][] features = new int[samples.size()][];
+        boolean[][] targets = new boolean[samples.size()][categoryCount];
+        for (int i = 0; i < samples.size(); i++) {
+            String text = samples.get(i).getText();
+            int[] buffer = new int[text.length() + 1];
+            features[i] = Arrays.copyOf(buffer, extractFeatures(text, BUCKET_COUNT - 1, buffer));
+            for (EventCategory label : samples.get(i).getLabels()) {
+                targets[i][categories.indexOf(label)] = true;
+            }
+        }
+
+        int[] order = new int[samples.size()];
+        Arrays.setAll(order, i -> i);
+        Random random = new Random(TRAINING_SEED);
+        long totalSteps = (long) EPOCHS * samples.size();
+        long step = 0;
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            shuffle(order, random);
+            for (int sample : order) {
+                double learningRate = LEARNING_RATE * (1 - (double) step++ / totalSteps);
+                int[] sampleFeatures = features[sample];
+                double scale = featureScale(sampleFeatures.length);
+                for (int category = 0; category < categoryCount; category++) {
+                    double score = 0;
+                    for (int bucket : sampleFeatures) {
+                        score += weights[bucket * categoryCount + category];
+                    }
+                    score = biases[category] + score * scale;
+                    double gradient = sigmoid(score) - (targets[sample][category] ? 1 : 0);
+                    biases[category] -= (float) (learningRate * gradient);
+                    if (sampleFeatures.length > 0) {
+                        float update = (float) (learningRate * gradient * scale);
+                        for (int bucket : sampleFeatures) {
+                            weights[bucket * categoryCount + category] -= update;
+                        }
+                    }
+                }
+            }
+        }
+
+        HashedLinearClassifier uncalibrated =
+                new HashedLinearClassifier(version, categories, BUCKET_COUNT, weights, biases, 1);
+        return new HashedLinearClassifier(version, categories, BUCKET_COUNT, weights, biases,
+                uncalibrated.fitTemperature(calibration));
+    }
+
+    static HashedLinearClassifier read(String version, InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(new BufferedInputStream(in));
+        if (dataIn.readInt() != FORMAT_MAGIC || dataIn.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a linear event classifier model of format version " + FORMAT_VERSION);
+        }
+        int bucketCount = dataIn.readInt();
+        int categoryCount = dataIn.readInt();
+        if (Integer.bitCount(bucketCount) != 1) {
+            throw new IOException("Bucket count " + bucketCount + " is not a power of two");
+        }
+        List<EventCategory> categories = new ArrayList<>();
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(EventCategory.valueOf(dataIn.readUTF()));
+        }
+        double temperature = dataIn.readDouble();
+        float[] biases = new float[categoryCount];
+        for (int i = 0; i < biases.length; i++) {
+            biases[i] = dataIn.readFloat();
+        }
+        float[] weights = new float[bucketCount * categoryCount];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = dataIn.readFloat();
+        }
+        return new HashedLinearClassifier(version, categories, bucketCount, weights, biases, temperature);
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        dataOut.writeInt(FORMAT_MAGIC);
+        dataOut.writeInt(FORMAT_VERSION);
+        dataOut.writeInt(bucketCount);
+        dataOut.writeInt(categories.size());
+        for (EventCategory category : categories) {
+            dataOut.writeUTF(category.name());
+        }
+        dataOut.writeDouble(temperature);
+        for (float bias : biases) {
+            dataOut.writeFloat(bias);
+        }
+        for (float weight : weights) {
+            dataOut.writeFloat(weight);
+        }
+        dataOut.flush();
+    }
+
+    @Override
+    public String version() {
+        return version;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<EventCategory> categories() {
+        return categories;
+    }
+
+    // independent probabilities, they do not sum to one
+    @Override
+    public double[] probabilities(String text) {
+        double[] scores = scores(text);
+        for (int category = 0; category < scores.length; category++) {
+            scores[category] = sigmoid(scores[category] / temperature);
+        }
+        return scores;
+    }
+
+    double temperature() {
+        return temperature;
+    }
+
+    // the only allocation is the returned array, features go into a buffer kept by the thread
+    private double[] scores(String text) {
+        int[] features = featureBuffer.get();
+        if (features.length < text.length() + 1) {
+            features = new int[text.length() + 1];
+            featureBuffer.set(features);
+        }
+        int featureCount = extractFeatures(text, bucketCount - 1, features);
+        int categoryCount = biases.length;
+        double[] scores = new double[categoryCount];
+        for (int i = 0; i < featureCount; i++) {
+            int row = features[i] * categoryCount;
+            for (int category = 0; category < categoryCount; category++) {
+                scores[category] += weights[row + category];
+            }
+        }
+        double scale = featureScale(featureCount);
+        for (int category = 0; category < categoryCount; category++) {
+            scores[category] = biases[category] + scores[category] * scale;
+        }
+        return scores;
+    }
+
+    // temperature scaling: the one value minimizing the log loss on the calibration samples, searched on a
+    // logarithmic grid; it divides every score alike, so the ranking of the categories does not change
+    private double fitTemperature(List<LabeledText> calibration) {
+        if (calibration.isEmpty()) {
+            return 1;
+        }
+        List<double[]> calibrationScores = calibration.stream().map(sample -> scores(sample.getText())).toList();
+        double bestTemperature = 1;
+        double bestLoss = Double.MAX_VALUE;
+        for (int i = -40; i <= 40; i++) {
+            double candidate = Math.pow(10, i / 20.0);
+            double loss = 0;
+            for (int sample = 0; sample < calibration.size(); sample++) {
+                double[] sampleScores = calibrationScores.get(sample);
+                List<EventCategory> labels = calibration.get(sample).getLabels();
+                for (int category = 0; category < sampleScores.length; category++) {
+                    double probability = sigmoid(sampleScores[category] / candidate);
+                    loss -= Math.log(Math.max(labels.contains(categories.get(category))
+                            ? probability : 1 - probability, 1e-12));
+                }
+            }
+            if (loss < bestLoss) {
+                bestLoss = loss;
+                bestTemperature = candidate;
+            }
+        }
+        return bestTemperature;
+    }
+
+    // a text of n characters has at most n features: each token is at least one character followed by
+    // a separator, and gives one unigram and one bigram with the token before it
+    static int extractFeatures(String text, int bucketMask, int[] features) {
+        int featureCount = 0;
+        int hash = FNV_OFFSET;
+        int previousHash = 0;
+        boolean inToken = false;
+        boolean hasPrevious = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < FOLDED.length) {
+                c = FOLDED[c];
+            } else {
+                c = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ';
+            }
+            if (c != ' ') {
+                hash = (hash ^ c) * FNV_PRIME;
+                inToken = true;
+            } else if (inToken) {
+                features[featureCount++] = hash & bucketMask;
+                if (hasPrevious) {
+                    features[featureCount++] = mix(previousHash * BIGRAM_MULTIPLIER + hash) & bucketMask;
+                }
+                previousHash = hash;
+                hasPrevious = true;
+                hash = FNV_OFFSET;
+                inToken = false;
+            }
+        }
+        if (inToken) {
+            features[featureCount++] = hash & bucketMask;
+            if (hasPrevious) {
+                features[featureCount++] = mix(previousHash * BIGRAM_MULTIPLIER + hash) & bucketMask;
+            }
+        }
+        return featureCount;
+    }
+
+    // spreads bigram hashes apart from the unigram ones
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+
+    private static double featureScale(int featureCount) {
+        return featureCount == 0 ? 0 : 1 / Math.sqrt(featureCount);
+    }
+
+    private static double sigmoid(double score) {
+        return 1 / (1 + Math.exp(-score));
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    // characters that separate tokens are mapped to a space
+    private static char[] foldTable() {
+        char[] table = new char[0x0180];
+        for (char c = 0; c < table.length; c++) {
+            String folded = TextNormalizer.fold(String.valueOf(c));
+            table[c] = Character.isLetterOrDigit(c) && !folded.isEmpty() ? folded.charAt(0) : ' ';
+        }
+        return table;
+    }
+}
@@ -0,0 +1,16 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.util.List;
+
+// a training sample, a text may belong to several categories
+@Getter
+@AllArgsConstructor
+class LabeledText {
+
+    private final List<EventCategory> labels;
+    private final String text;
+}
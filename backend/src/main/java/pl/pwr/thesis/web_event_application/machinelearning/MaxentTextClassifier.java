@@ -0,0 +1,82 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import opennlp.tools.doccat.DoccatFactory;
+import opennlp.tools.doccat.DoccatModel;
+import opennlp.tools.doccat.DocumentCategorizerME;
+import opennlp.tools.doccat.DocumentSample;
+import opennlp.tools.util.ObjectStreamUtils;
+import opennlp.tools.util.TrainingParameters;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// OpenNLP maximum entropy model over whitespace tokens, probabilities sum to one so a text gets a single category;
+// DocumentCategorizerME is not thread safe, so every thread gets its own
+final class MaxentTextClassifier implements TextClassifier {
+
+    static final String TYPE = "maxent";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String version;
+    private final DoccatModel model;
+    private final List<EventCategory> categories;
+    private final ThreadLocal<DocumentCategorizerME> categorizer;
+
+    MaxentTextClassifier(String version, DoccatModel model) {
+        this.version = version;
+        this.model = model;
+        this.categorizer = ThreadLocal.withInitial(() -> new DocumentCategorizerME(model));
+
+        DocumentCategorizerME documentCategorizer = categorizer.get();
+        List<EventCategory> modelCategories = new ArrayList<>();
+        for (int i = 0; i < documentCategorizer.getNumberOfCategories(); i++) {
+            modelCategories.add(EventCategory.valueOf(documentCategorizer.getCategory(i)));
+        }
+        this.categories = List.copyOf(modelCategories);
+    }
+
+    // a multi label sample is trained on its first label
+    static MaxentTextClassifier train(String version, List<LabeledText> samples) throws IOException {
+        List<DocumentSample> documentSamples = samples.stream()
+                .map(sample -> new DocumentSample(sample.getLabels().get(0).name(), tokenize(sample.getText())))
+                .toList();
+        TrainingParameters mlParams = new TrainingParameters();
+        mlParams.put(TrainingParameters.CUTOFF_PARAM, "1");
+        DoccatModel model = DocumentCategorizerME.train("en", ObjectStreamUtils.createObjectStream(documentSamples),
+                mlParams, new DoccatFactory());
+        return new MaxentTextClassifier(version, model);
+    }
+
+    @Override
+    public String version() {
+        return version;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<EventCategory> categories() {
+        return categories;
+    }
+
+    @Override
+    public double[] probabilities(String text) {
+        return categorizer.get().categorize(tokenize(text));
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        model.serialize(out);
+    }
+
+    private static String[] tokenize(String text) {
+        return WHITESPACE.split(text.strip());
+    }
+}
@@ -0,0 +1,98 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import opennlp.tools.doccat.DoccatModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// model directory layout: event_classifier-<version>.bin for maxent models, event_classifier-<version>.linear for
+// hashed linear models, with the metrics in event_classifier-<version>.properties;
+// versions are timestamps so the newest model is the greatest version
+final class ModelArtifacts {
+
+    static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final Pattern MODEL_FILE = Pattern.compile("event_classifier-(\\d{14})\\.(bin|linear)");
+
+    private ModelArtifacts() {
+    }
+
+    static String newVersion() {
+        return LocalDateTime.now().format(VERSION_FORMAT);
+    }
+
+    static Path modelFile(Path directory, String version, String type) {
+        String extension = MaxentTextClassifier.TYPE.equals(type) ? ".bin" : "." + type;
+        return directory.resolve("event_classifier-" + version + extension);
+    }
+
+    static Path metricsFile(Path directory, String version) {
+        return directory.resolve("event_classifier-" + version + ".properties");
+    }
+
+    static Optional<String> latestVersion(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(file -> MODEL_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> matcher.group(1))
+                    .max(Comparator.naturalOrder());
+        }
+    }
+
+    static TextClassifier readModel(Path directory, String version) throws IOException {
+        Path linearModel = modelFile(directory, version, HashedLinearClassifier.TYPE);
+        if (Files.exists(linearModel)) {
+            try (InputStream modelIn = Files.newInputStream(linearModel)) {
+                return HashedLinearClassifier.read(version, modelIn);
+            }
+        }
+        try (InputStream modelIn = Files.newInputStream(modelFile(directory, version, MaxentTextClassifier.TYPE))) {
+            return new MaxentTextClassifier(version, new DoccatModel(modelIn));
+        }
+    }
+
+    static Properties readMetrics(Path directory, String version) throws IOException {
+        Properties metrics = new Properties();
+        Path file = metricsFile(directory, version);
+        if (Files.exists(file)) {
+            try (InputStream metricsIn = Files.newInputStream(file)) {
+                metrics.load(metricsIn);
+            }
+        }
+        return metrics;
+    }
+
+    // the metrics go first and every file is moved into place whole,
+    // so a reader polling for models never sees a partly written one
+    static void write(Path directory, TextClassifier classifier, Properties metrics) throws IOException {
+        String version = classifier.version();
+        Files.createDirectories(directory);
+
+        Path metricsTemp = Files.createTempFile(directory, "event_classifier-", ".properties.tmp");
+        try (OutputStream metricsOut = Files.newOutputStream(metricsTemp)) {
+            metrics.store(metricsOut, "event classifier " + version);
+        }
+        Files.move(metricsTemp, metricsFile(directory, version), StandardCopyOption.ATOMIC_MOVE);
+
+        Path modelTemp = Files.createTempFile(directory, "event_classifier-", ".model.tmp");
+        try (OutputStream modelOut = Files.newOutputStream(modelTemp)) {
+            classifier.write(modelOut);
+        }
+        Files.move(modelTemp, modelFile(directory, version, classifier.type()), StandardCopyOption.ATOMIC_MOVE);
+    }
+}
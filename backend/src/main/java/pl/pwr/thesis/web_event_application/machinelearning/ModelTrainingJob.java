@@ -0,0 +1,152 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+// trains the event classifier outside of the application and publishes it into the model directory
+// the running application polls, e.g.
+// java -cp app.jar -Dloader.main=pl.pwr.thesis.web_event_application.machinelearning.ModelTrainingJob
+//      org.springframework.boot.loader.launch.PropertiesLauncher event_data.train models 0.2 0.6 linear
+public final class ModelTrainingJob {
+
+    private static final double DEFAULT_HELD_OUT_FRACTION = 0.2;
+    // share of the training samples the linear model fits its temperature on instead of its weights
+    private static final double CALIBRATION_FRACTION = 0.15;
+    // the same split on every run, so accuracies of successive models are comparable
+    private static final long SPLIT_SEED = 42;
+    private static final Logger logger = LoggerFactory.getLogger(ModelTrainingJob.class);
+
+    private ModelTrainingJob() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ModelTrainingJob <training data> <model directory>" +
+                    " [held out fraction] [minimum accuracy] [linear|maxent]");
+            System.exit(2);
+        }
+        Path trainingData = Path.of(args[0]);
+        Path modelDirectory = Path.of(args[1]);
+        double heldOutFraction = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_HELD_OUT_FRACTION;
+        double minimumAccuracy = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        String type = args.length > 4 ? args[4] : HashedLinearClassifier.TYPE;
+
+        List<LabeledText> samples = readSamples(trainingData);
+        Collections.shuffle(samples, new Random(SPLIT_SEED));
+        int heldOutSize = (int) Math.round(samples.size() * heldOutFraction);
+        List<LabeledText> heldOut = samples.subList(0, heldOutSize);
+        List<LabeledText> training = samples.subList(heldOutSize, samples.size());
+        // the calibration slice comes out of the training part, so the held out samples stay unseen
+        // and their log loss measures the calibration instead of reproducing it
+        int calibrationSize = HashedLinearClassifier.TYPE.equals(type)
+                ? (int) Math.round(training.size() * CALIBRATION_FRACTION)
+                : 0;
+        List<LabeledText> calibration = training.subList(0, calibrationSize);
+        training = training.subList(calibrationSize, training.size());
+
+        long start = System.currentTimeMillis();
+        TextClassifier classifier = train(type, ModelArtifacts.newVersion(), training, calibration);
+        long trainingTime = System.currentTimeMillis() - start;
+        double accuracy = accuracy(classifier, heldOut);
+        double logLoss = logLoss(classifier, heldOut);
+        logger.info("Trained {} model on {} samples in {} ms, held out accuracy {} and log loss {} on {} samples",
+                type, training.size(), trainingTime, accuracy, logLoss, heldOut.size());
+
+        if (accuracy < minimumAccuracy) {
+            logger.error("Held out accuracy {} is below the minimum {}, model not published", accuracy, minimumAccuracy);
+            System.exit(1);
+        }
+
+        Properties metrics = new Properties();
+        metrics.setProperty("version", classifier.version());
+        metrics.setProperty("type", type);
+        metrics.setProperty("categories", classifier.categories().toString());
+        metrics.setProperty("trainingData", trainingData.toAbsolutePath().toString());
+        metrics.setProperty("trainingSamples", String.valueOf(training.size()));
+        metrics.setProperty("calibrationSamples", String.valueOf(calibration.size()));
+        metrics.setProperty("heldOutSamples", String.valueOf(heldOut.size()));
+        metrics.setProperty("heldOutAccuracy", String.valueOf(accuracy));
+        metrics.setProperty("heldOutLogLoss", String.valueOf(logLoss));
+        metrics.setProperty("trainingTimeMs", String.valueOf(trainingTime));
+        if (classifier instanceof HashedLinearClassifier linearClassifier) {
+            metrics.setProperty("temperature", String.valueOf(linearClassifier.temperature()));
+        }
+        ModelArtifacts.write(modelDirectory, classifier, metrics);
+        logger.info("Published event classifier model version {} to {}",
+                classifier.version(), modelDirectory.toAbsolutePath());
+    }
+
+    // the calibration samples only fit the temperature of the linear model, they are never trained on
+    static TextClassifier train(String type, String version, List<LabeledText> training,
+                                List<LabeledText> calibration) throws IOException {
+        return switch (type) {
+            case HashedLinearClassifier.TYPE -> HashedLinearClassifier.train(version, training, calibration);
+            case MaxentTextClassifier.TYPE -> MaxentTextClassifier.train(version, training);
+            default -> throw new IllegalArgumentException("Unknown model type: " + type);
+        };
+    }
+
+    // share of held out samples whose most probable category is one of their labels, NaN when nothing is held out
+    static double accuracy(TextClassifier classifier, List<LabeledText> heldOut) {
+        if (heldOut.isEmpty()) {
+            return Double.NaN;
+        }
+        long correct = heldOut.stream()
+                .filter(sample -> {
+                    double[] probabilities = classifier.probabilities(sample.getText());
+                    int best = 0;
+                    for (int i = 1; i < probabilities.length; i++) {
+                        if (probabilities[i] > probabilities[best]) {
+                            best = i;
+                        }
+                    }
+                    return sample.getLabels().contains(classifier.categories().get(best));
+                })
+                .count();
+        return (double) correct / heldOut.size();
+    }
+
+    // mean binary log loss over samples and categories, lower means better calibrated probabilities
+    static double logLoss(TextClassifier classifier, List<LabeledText> heldOut) {
+        if (heldOut.isEmpty()) {
+            return Double.NaN;
+        }
+        double loss = 0;
+        for (LabeledText sample : heldOut) {
+            double[] probabilities = classifier.probabilities(sample.getText());
+            for (int i = 0; i < probabilities.length; i++) {
+                boolean labeled = sample.getLabels().contains(classifier.categories().get(i));
+                loss -= Math.log(Math.max(labeled ? probabilities[i] : 1 - probabilities[i], 1e-12));
+            }
+        }
+        return loss / (heldOut.size() * classifier.categories().size());
+    }
+
+    // one sample per line: comma separated categories, then a tab or a literal \t, then the text
+    static List<LabeledText> readSamples(Path trainingData) throws IOException {
+        List<LabeledText> samples = new ArrayList<>();
+        for (String line : Files.readAllLines(trainingData, StandardCharsets.UTF_8)) {
+            String[] columns = line.replace("\\t", "\t").split("\t", 2);
+            if (columns.length < 2 || columns[1].isBlank()) {
+                continue;
+            }
+            List<EventCategory> labels = Arrays.stream(columns[0].split(","))
+                    .map(label -> EventCategory.valueOf(label.strip()))
+                    .toList();
+            samples.add(new LabeledText(labels, columns[1]));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,23 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// a trained model behind EventClassifier; implementations are immutable and safe to share between threads
+public interface TextClassifier {
+
+    String version();
+
+    // names the artifact format, see ModelArtifacts
+    String type();
+
+    // the categories the model knows, in the order of the probabilities
+    List<EventCategory> categories();
+
+    double[] probabilities(String text);
+
+    void write(OutputStream out) throws IOException;
+}
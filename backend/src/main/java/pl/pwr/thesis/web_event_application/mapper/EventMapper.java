@@ -5,6 +5,7 @@ import org.mapstruct.MappingConstants;
 import pl.pwr.thesis.web_event_application.dto.list.EventDto;
 import pl.pwr.thesis.web_event_application.dto.map.EventDtoMap;
 import pl.pwr.thesis.web_event_application.dto.user.FavouriteEventDto;
+import pl.pwr.thesis.web_event_application.entity.ArchivedEvent;
 import pl.pwr.thesis.web_event_application.entity.Event;
 
 
@@ -23,5 +24,7 @@ public interface EventMapper {
 
     FavouriteEventDto eventToFavouriteEventDto(Event event);
 
+    EventDto archivedEventToDto(ArchivedEvent archivedEvent);
+
     Event favouriteEventDtoToEvent(FavouriteEventDto favouriteEventDto);
 }
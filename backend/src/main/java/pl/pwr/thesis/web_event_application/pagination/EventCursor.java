@@ -0,0 +1,45 @@
+package pl.pwr.thesis.web_event_application.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class EventCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime startDate;
+    private final long id;
+
+    public static EventCursor of(EventDto eventDto) {
+        return new EventCursor(LocalDateTime.parse(eventDto.getStartDate()), eventDto.getId());
+    }
+
+    public String encode() {
+        String raw = startDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            LocalDateTime startDate = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            long id = Long.parseLong(raw.substring(separatorIndex + 1));
+            return new EventCursor(startDate, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+}
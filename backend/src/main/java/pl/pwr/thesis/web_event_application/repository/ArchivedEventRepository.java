@@ -0,0 +1,42 @@
+package pl.pwr.thesis.web_event_application.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.pwr.thesis.web_event_application.entity.ArchivedEvent;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedEventRepository extends JpaRepository<ArchivedEvent, Long> {
+
+    @EntityGraph(attributePaths = {"location.address.city", "category"})
+    List<ArchivedEvent> findAllByOrderByEndDateDesc(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"location.address.city", "category"})
+    List<ArchivedEvent> findAllByLocationAddressCityNameOrderByEndDateDesc(String cityName, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_events " +
+            "(id, name, description, image, start_date, end_date, location_id, category_id, archived_at) " +
+            "SELECT id, name, description, image, start_date, end_date, location_id, category_id, NOW() " +
+            "FROM events WHERE id IN (:ids)",
+            nativeQuery = true)
+    int copyEvents(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_reactions (user_id, event_id, type) " +
+            "SELECT user_id, event_id, type FROM reactions WHERE event_id IN (:ids)",
+            nativeQuery = true)
+    int copyReactions(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_users_events (user_id, event_id) " +
+            "SELECT user_id, event_id FROM users_events WHERE event_id IN (:ids)",
+            nativeQuery = true)
+    int copyFavourites(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,75 @@
+package pl.pwr.thesis.web_event_application.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.machinelearning.Classification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+public class ClassificationCacheRepository {
+
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ClassificationCacheRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // classifications made by the given model version, by content hash
+    public Map<String, Classification> findAll(List<String> contentHashes, String modelVersion) {
+        Map<String, Classification> result = new HashMap<>();
+        for (int from = 0; from < contentHashes.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = contentHashes.subList(from, Math.min(from + IN_CHUNK_SIZE, contentHashes.size()));
+            jdbcTemplate.query("SELECT content_hash, category, confidence, labels, model_version " +
+                            "FROM classification_cache " +
+                            "WHERE content_hash IN (:contentHashes) AND model_version = :modelVersion",
+                    Map.of("contentHashes", chunk, "modelVersion", modelVersion),
+                    resultSet -> {
+                        result.put(resultSet.getString("content_hash"), new Classification(
+                                EventCategory.valueOf(resultSet.getString("category")),
+                                resultSet.getDouble("confidence"),
+                                Arrays.stream(resultSet.getString("labels").split(","))
+                                        .map(EventCategory::valueOf)
+                                        .toList(),
+                                resultSet.getString("model_version")));
+                    });
+        }
+        return result;
+    }
+
+    // a newer model overwrites the answer of the previous one
+    public void saveAll(Map<String, Classification> classifications) {
+        if (classifications.isEmpty()) {
+            return;
+        }
+        LocalDateTime classifiedAt = LocalDateTime.now();
+        List<SqlParameterSource> parameters = new ArrayList<>();
+        classifications.forEach((contentHash, classification) -> parameters.add(new MapSqlParameterSource()
+                .addValue("contentHash", contentHash)
+                .addValue("category", classification.getCategory().name())
+                .addValue("confidence", classification.getConfidence())
+                .addValue("labels", classification.getLabels().stream()
+                        .map(EventCategory::name)
+                        .collect(Collectors.joining(",")))
+                .addValue("modelVersion", classification.getModelVersion())
+                .addValue("classifiedAt", classifiedAt)));
+        jdbcTemplate.batchUpdate("INSERT INTO classification_cache " +
+                "(content_hash, category, confidence, labels, model_version, classified_at) " +
+                "VALUES (:contentHash, :category, :confidence, :labels, :modelVersion, :classifiedAt) " +
+                "ON DUPLICATE KEY UPDATE category = VALUES(category), confidence = VALUES(confidence), " +
+                "labels = VALUES(labels), " +
+                "model_version = VALUES(model_version), classified_at = VALUES(classified_at)",
+                parameters.toArray(SqlParameterSource[]::new));
+    }
+}
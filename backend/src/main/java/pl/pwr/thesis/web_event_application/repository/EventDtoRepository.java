@@ -0,0 +1,230 @@
+package pl.pwr.thesis.web_event_application.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueFilter;
+import pl.pwr.thesis.web_event_application.dto.list.AddressDto;
+import pl.pwr.thesis.web_event_application.dto.list.CategoryDto;
+import pl.pwr.thesis.web_event_application.dto.list.CityDto;
+import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+import pl.pwr.thesis.web_event_application.dto.list.LocationDto;
+import pl.pwr.thesis.web_event_application.dto.map.EventDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.LocationDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.MapViewport;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.pagination.EventCursor;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// read side of the catalogue: DTOs straight from the result set, no entities and no persistence context
+@Repository
+public class EventDtoRepository {
+
+    private static final String MAP_COLUMNS = "e.id, e.name, e.image, e.start_date, e.end_date, " +
+            "l.id AS location_id, l.name AS location_name, l.latitude, l.longitude, " +
+            "c.id AS category_id, c.name AS category_name, c.image AS category_image";
+    private static final String LIST_COLUMNS = MAP_COLUMNS + ", e.description, " +
+            "a.id AS address_id, a.street, ci.id AS city_id, ci.name AS city_name, " +
+            "ci.latitude AS city_latitude, ci.longitude AS city_longitude";
+    private static final String MAP_TABLES = " FROM events e " +
+            "JOIN locations l ON l.id = e.location_id " +
+            "JOIN categories c ON c.id = e.category_id";
+    private static final String LIST_TABLES = MAP_TABLES + " " +
+            "JOIN addresses a ON a.id = l.address_id " +
+            "JOIN cities ci ON ci.id = a.city_id";
+    // same textual format MapStruct uses for the entity based mappings
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // MySQL Connector/J only streams rows one by one for this fetch size
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final RowMapper<EventDto> EVENT_DTO_MAPPER = (resultSet, rowNumber) -> {
+        EventDto eventDto = new EventDto();
+        eventDto.setId(resultSet.getLong("id"));
+        eventDto.setName(resultSet.getString("name"));
+        eventDto.setImage(resultSet.getString("image"));
+        eventDto.setDescription(resultSet.getString("description"));
+        eventDto.setStartDate(formatDate(resultSet.getTimestamp("start_date")));
+        eventDto.setEndDate(formatDate(resultSet.getTimestamp("end_date")));
+        eventDto.setLocation(mapLocation(resultSet));
+        eventDto.setCategory(mapCategory(resultSet));
+        return eventDto;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public EventDtoRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+    }
+
+    public List<EventDto> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + LIST_COLUMNS + LIST_TABLES + " WHERE e.id IN (:ids)",
+                Map.of("ids", ids), EVENT_DTO_MAPPER);
+    }
+
+    // keyset page ordered by (start_date, id), starting after the cursor when one is given;
+    // search matches of the filter are not applied here, they are paged by the bitmap index
+    public List<EventDto> findAllAfter(CatalogueFilter filter, Optional<EventCursor> after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + LIST_COLUMNS + LIST_TABLES + " WHERE 1 = 1");
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        if (filter.getCityName() != null) {
+            sql.append(" AND ci.name = :cityName");
+            parameters.addValue("cityName", filter.getCityName());
+        }
+        if (!filter.getCategories().isEmpty()) {
+            sql.append(" AND c.name IN (:categories)");
+            parameters.addValue("categories", filter.getCategories().stream().map(Enum::name).toList());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND e.end_date >= :from");
+            parameters.addValue("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND e.start_date <= :to");
+            parameters.addValue("to", filter.getTo());
+        }
+        after.ifPresent(cursor -> {
+            sql.append(" AND (e.start_date > :afterStartDate " +
+                    "OR (e.start_date = :afterStartDate AND e.id > :afterId))");
+            parameters.addValue("afterStartDate", cursor.getStartDate());
+            parameters.addValue("afterId", cursor.getId());
+        });
+        sql.append(" ORDER BY e.start_date, e.id LIMIT :limit");
+        parameters.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), parameters, EVENT_DTO_MAPPER);
+    }
+
+    // ids == null streams every event, rows are handed over as they arrive; returns the number of rows streamed
+    public int streamAllForMap(Collection<Long> ids,
+                               Optional<MapViewport> viewport,
+                               int limit,
+                               Consumer<EventDtoMap> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT " + MAP_COLUMNS + MAP_TABLES + " WHERE 1 = 1");
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        if (ids != null) {
+            if (ids.isEmpty() || limit <= 0) {
+                return 0;
+            }
+            sql.append(" AND e.id IN (:ids)");
+            parameters.addValue("ids", ids);
+        }
+        appendViewport(sql, parameters, viewport);
+
+        if (limit < Integer.MAX_VALUE) {
+            sql.append(" ORDER BY e.id LIMIT :limit");
+            parameters.addValue("limit", limit);
+        }
+
+        int[] streamed = new int[1];
+        streamingJdbcTemplate.query(sql.toString(), parameters, (RowCallbackHandler) resultSet -> {
+            consumer.accept(mapEventDtoMap(resultSet));
+            streamed[0]++;
+        });
+        return streamed[0];
+    }
+
+    // whether any of the events, or any event at all when ids == null, lies within the viewport
+    public boolean existsForMap(Collection<Long> ids, Optional<MapViewport> viewport) {
+        StringBuilder sql = new StringBuilder("SELECT EXISTS (SELECT 1" + MAP_TABLES + " WHERE 1 = 1");
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+        if (ids != null) {
+            if (ids.isEmpty()) {
+                return false;
+            }
+            sql.append(" AND e.id IN (:ids)");
+            parameters.addValue("ids", ids);
+        }
+        appendViewport(sql, parameters, viewport);
+        sql.append(")");
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql.toString(), parameters, Boolean.class));
+    }
+
+    private static void appendViewport(StringBuilder sql, MapSqlParameterSource parameters,
+                                       Optional<MapViewport> viewport) {
+        viewport.ifPresent(bounds -> {
+            sql.append(" AND l.latitude BETWEEN :minLatitude AND :maxLatitude");
+            sql.append(bounds.crossesAntimeridian()
+                    ? " AND (l.longitude >= :minLongitude OR l.longitude <= :maxLongitude)"
+                    : " AND l.longitude BETWEEN :minLongitude AND :maxLongitude");
+            parameters.addValue("minLatitude", bounds.getMinLatitude());
+            parameters.addValue("maxLatitude", bounds.getMaxLatitude());
+            parameters.addValue("minLongitude", bounds.getMinLongitude());
+            parameters.addValue("maxLongitude", bounds.getMaxLongitude());
+        });
+    }
+
+    private static EventDtoMap mapEventDtoMap(ResultSet resultSet) throws SQLException {
+        EventDtoMap eventDto = new EventDtoMap();
+        eventDto.setId(resultSet.getLong("id"));
+        eventDto.setName(resultSet.getString("name"));
+        eventDto.setImage(resultSet.getString("image"));
+        eventDto.setStartDate(formatDate(resultSet.getTimestamp("start_date")));
+        eventDto.setEndDate(formatDate(resultSet.getTimestamp("end_date")));
+
+        LocationDtoMap location = new LocationDtoMap();
+        location.setId(resultSet.getLong("location_id"));
+        location.setName(resultSet.getString("location_name"));
+        location.setLatitude(resultSet.getDouble("latitude"));
+        location.setLongitude(resultSet.getDouble("longitude"));
+        eventDto.setLocation(location);
+
+        eventDto.setCategory(mapCategory(resultSet));
+        return eventDto;
+    }
+
+    private static LocationDto mapLocation(ResultSet resultSet) throws SQLException {
+        CityDto city = new CityDto();
+        city.setId(resultSet.getLong("city_id"));
+        city.setName(resultSet.getString("city_name"));
+        city.setLatitude(resultSet.getDouble("city_latitude"));
+        city.setLongitude(resultSet.getDouble("city_longitude"));
+
+        AddressDto address = new AddressDto();
+        address.setId(resultSet.getLong("address_id"));
+        address.setStreet(resultSet.getString("street"));
+        address.setCity(city);
+
+        LocationDto location = new LocationDto();
+        location.setId(resultSet.getLong("location_id"));
+        location.setName(resultSet.getString("location_name"));
+        location.setLatitude(resultSet.getDouble("latitude"));
+        location.setLongitude(resultSet.getDouble("longitude"));
+        location.setAddress(address);
+        return location;
+    }
+
+    private static CategoryDto mapCategory(ResultSet resultSet) throws SQLException {
+        CategoryDto category = new CategoryDto();
+        category.setId(resultSet.getInt("category_id"));
+        category.setImage(resultSet.getString("category_image"));
+        category.setEventCategory(EventCategory.valueOf(resultSet.getString("category_name")));
+        return category;
+    }
+
+    private static String formatDate(Timestamp timestamp) {
+        return timestamp == null ? null : DATE_FORMAT.format(timestamp.toLocalDateTime());
+    }
+}
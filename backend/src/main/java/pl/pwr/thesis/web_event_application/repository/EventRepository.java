@@ -1,12 +1,15 @@
 package pl.pwr.thesis.web_event_application.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueEntry;
+import pl.pwr.thesis.web_event_application.clustering.ClusterPoint;
 import pl.pwr.thesis.web_event_application.entity.Event;
 import pl.pwr.thesis.web_event_application.entity.Location;
+import pl.pwr.thesis.web_event_application.search.SearchDocument;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,10 +20,39 @@ public interface EventRepository extends JpaRepository<Event, Long> {
                                                           LocalDateTime startDate,
                                                           LocalDateTime endDate);
 
-    @EntityGraph(value = "event-with-location")
-    List<Event> findAll(Specification<Event> spec);
+    @Query("SELECT new pl.pwr.thesis.web_event_application.clustering.ClusterPoint(" +
+            "e.id, l.latitude, l.longitude, c.eventCategory) " +
+            "FROM Event e JOIN e.location l JOIN e.category c")
+    List<ClusterPoint> findAllClusterPoints();
 
-    @EntityGraph(value = "event-with-full-details")
-    Page<Event> findAll(Specification<Event> spec, Pageable pageable);
+    @Query("SELECT new pl.pwr.thesis.web_event_application.search.SearchDocument(" +
+            "e.id, e.name, l.name, c.name) " +
+            "FROM Event e JOIN e.location l JOIN l.address a JOIN a.city c")
+    List<SearchDocument> findAllSearchDocuments();
+
+    @Query("SELECT new pl.pwr.thesis.web_event_application.catalogue.CatalogueEntry(" +
+            "e.id, ci.name, c.eventCategory, e.startDate, e.endDate) " +
+            "FROM Event e JOIN e.location l JOIN l.address a JOIN a.city ci JOIN e.category c")
+    List<CatalogueEntry> findAllCatalogueEntries();
+
+    @Query("SELECT e.id FROM Event e WHERE e.endDate < :before ORDER BY e.id")
+    List<Long> findEndedEventIds(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // reactions, favourites and notifications of the events go with them through ON DELETE CASCADE
+    @Modifying
+    @Query(value = "DELETE FROM events WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
+
+    // event id and score of every event whose name or location name matches the query
+    @Query(value = "SELECT matches.id, SUM(matches.score) FROM (" +
+            "SELECT e.id, MATCH(e.name) AGAINST(:query IN BOOLEAN MODE) * 2 AS score " +
+            "FROM events e WHERE MATCH(e.name) AGAINST(:query IN BOOLEAN MODE) " +
+            "UNION ALL " +
+            "SELECT e.id, MATCH(l.name) AGAINST(:query IN BOOLEAN MODE) AS score " +
+            "FROM locations l JOIN events e ON e.location_id = l.id " +
+            "WHERE MATCH(l.name) AGAINST(:query IN BOOLEAN MODE)) matches " +
+            "GROUP BY matches.id",
+            nativeQuery = true)
+    List<Object[]> findScoresByFullTextQuery(@Param("query") String query);
 
 }
@@ -0,0 +1,49 @@
+package pl.pwr.thesis.web_event_application.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pl.pwr.thesis.web_event_application.geocode.CachedGeocode;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+public class GeocodeCacheRepository {
+
+    private static final RowMapper<CachedGeocode> CACHED_GEOCODE_MAPPER = (resultSet, rowNumber) -> {
+        double latitude = resultSet.getDouble("latitude");
+        double[] coordinates = resultSet.wasNull()
+                ? null
+                : new double[]{latitude, resultSet.getDouble("longitude")};
+        return new CachedGeocode(coordinates, resultSet.getTimestamp("resolved_at").toLocalDateTime());
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public GeocodeCacheRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<CachedGeocode> find(String queryKey) {
+        return jdbcTemplate.query("SELECT latitude, longitude, resolved_at FROM geocode_cache " +
+                        "WHERE query_key = :queryKey", Map.of("queryKey", queryKey), CACHED_GEOCODE_MAPPER)
+                .stream()
+                .findFirst();
+    }
+
+    // null coordinates store a negative answer
+    public void save(String queryKey, double[] coordinates) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("queryKey", queryKey)
+                .addValue("latitude", coordinates == null ? null : coordinates[0])
+                .addValue("longitude", coordinates == null ? null : coordinates[1])
+                .addValue("resolvedAt", LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO geocode_cache (query_key, latitude, longitude, resolved_at) " +
+                "VALUES (:queryKey, :latitude, :longitude, :resolvedAt) " +
+                "ON DUPLICATE KEY UPDATE latitude = :latitude, longitude = :longitude, " +
+                "resolved_at = :resolvedAt", parameters);
+    }
+}
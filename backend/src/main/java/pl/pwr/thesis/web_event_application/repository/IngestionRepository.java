@@ -0,0 +1,162 @@
+package pl.pwr.thesis.web_event_application.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import pl.pwr.thesis.web_event_application.entity.Address;
+import pl.pwr.thesis.web_event_application.entity.City;
+import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.entity.Location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// set based write side of the scraper ingestion: rows are looked up with one IN query per table and chunk,
+// and inserted as JDBC batches, which the driver rewrites into multi-row inserts
+@Repository
+public class IngestionRepository {
+
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private static final RowMapper<City> CITY_MAPPER = (resultSet, rowNumber) -> City.builder()
+            .id(resultSet.getLong("id"))
+            .name(resultSet.getString("name"))
+            .latitude(resultSet.getDouble("latitude"))
+            .longitude(resultSet.getDouble("longitude"))
+            .build();
+    // the city is only a reference holding its id
+    private static final RowMapper<Address> ADDRESS_MAPPER = (resultSet, rowNumber) -> Address.builder()
+            .id(resultSet.getLong("id"))
+            .street(resultSet.getString("street"))
+            .city(City.builder().id(resultSet.getLong("city_id")).build())
+            .build();
+    private static final RowMapper<Location> LOCATION_MAPPER = (resultSet, rowNumber) -> Location.builder()
+            .id(resultSet.getLong("id"))
+            .name(resultSet.getString("name"))
+            .address(Address.builder().id(resultSet.getLong("address_id")).build())
+            .latitude(resultSet.getDouble("latitude"))
+            .longitude(resultSet.getDouble("longitude"))
+            .build();
+    private static final RowMapper<Event> EVENT_KEY_MAPPER = (resultSet, rowNumber) -> {
+        Event event = new Event();
+        event.setId(resultSet.getLong("id"));
+        event.setName(resultSet.getString("name"));
+        event.setStartDate(resultSet.getTimestamp("start_date").toLocalDateTime());
+        event.setEndDate(resultSet.getTimestamp("end_date").toLocalDateTime());
+        event.setLocation(Location.builder().id(resultSet.getLong("location_id")).build());
+        return event;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public IngestionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<City> findCities(Collection<City> cities) {
+        return queryInChunks(cities, City::getName,
+                "SELECT id, name, latitude, longitude FROM cities WHERE name IN (:keys)", CITY_MAPPER);
+    }
+
+    // conflicts on name_UNIQUE are ignored, the rows are read back with findCities
+    public void insertCities(Collection<City> cities) {
+        batchUpdate("INSERT INTO cities (name, latitude, longitude) VALUES (:name, :latitude, :longitude) " +
+                "ON DUPLICATE KEY UPDATE id = id", cities, city -> new MapSqlParameterSource()
+                .addValue("name", city.getName())
+                .addValue("latitude", city.getLatitude())
+                .addValue("longitude", city.getLongitude()));
+    }
+
+    public void updateCityCoordinates(Collection<City> cities) {
+        batchUpdate("UPDATE cities SET latitude = :latitude, longitude = :longitude WHERE id = :id",
+                cities, city -> new MapSqlParameterSource()
+                        .addValue("id", city.getId())
+                        .addValue("latitude", city.getLatitude())
+                        .addValue("longitude", city.getLongitude()));
+    }
+
+    public List<Address> findAddresses(Collection<Address> addresses) {
+        return queryInChunks(addresses,
+                address -> new Object[]{address.getStreet(), address.getCity().getId()},
+                "SELECT id, street, city_id FROM addresses WHERE (street, city_id) IN (:keys)", ADDRESS_MAPPER);
+    }
+
+    // conflicts on uniqe_address_city are ignored
+    public void insertAddresses(Collection<Address> addresses) {
+        batchUpdate("INSERT INTO addresses (street, city_id) VALUES (:street, :cityId) " +
+                "ON DUPLICATE KEY UPDATE id = id", addresses, address -> new MapSqlParameterSource()
+                .addValue("street", address.getStreet())
+                .addValue("cityId", address.getCity().getId()));
+    }
+
+    public List<Location> findLocations(Collection<Location> locations) {
+        return queryInChunks(locations,
+                location -> new Object[]{location.getAddress().getId(), location.getName()},
+                "SELECT id, name, address_id, latitude, longitude FROM locations " +
+                        "WHERE (address_id, name) IN (:keys)", LOCATION_MAPPER);
+    }
+
+    // conflicts on unique_location_address are ignored
+    public void insertLocations(Collection<Location> locations) {
+        batchUpdate("INSERT INTO locations (name, address_id, latitude, longitude) " +
+                "VALUES (:name, :addressId, :latitude, :longitude) " +
+                "ON DUPLICATE KEY UPDATE id = id", locations, location -> new MapSqlParameterSource()
+                .addValue("name", location.getName())
+                .addValue("addressId", location.getAddress().getId())
+                .addValue("latitude", location.getLatitude())
+                .addValue("longitude", location.getLongitude()));
+    }
+
+    public void updateLocationCoordinates(Collection<Location> locations) {
+        batchUpdate("UPDATE locations SET latitude = :latitude, longitude = :longitude WHERE id = :id",
+                locations, location -> new MapSqlParameterSource()
+                        .addValue("id", location.getId())
+                        .addValue("latitude", location.getLatitude())
+                        .addValue("longitude", location.getLongitude()));
+    }
+
+    // returns id, name, dates and location id of the stored events matching unique_event
+    public List<Event> findEvents(Collection<Event> events) {
+        return queryInChunks(events,
+                event -> new Object[]{event.getName(), event.getStartDate(), event.getEndDate(),
+                        event.getLocation().getId()},
+                "SELECT id, name, start_date, end_date, location_id FROM events " +
+                        "WHERE (name, start_date, end_date, location_id) IN (:keys)", EVENT_KEY_MAPPER);
+    }
+
+    // conflicts on unique_event are ignored
+    public void insertEvents(Collection<Event> events) {
+        batchUpdate("INSERT INTO events (name, description, image, start_date, end_date, location_id, category_id) " +
+                "VALUES (:name, :description, :image, :startDate, :endDate, :locationId, :categoryId) " +
+                "ON DUPLICATE KEY UPDATE id = id", events, event -> new MapSqlParameterSource()
+                .addValue("name", event.getName())
+                .addValue("description", event.getDescription())
+                .addValue("image", event.getImage())
+                .addValue("startDate", event.getStartDate())
+                .addValue("endDate", event.getEndDate())
+                .addValue("locationId", event.getLocation().getId())
+                .addValue("categoryId", event.getCategory().getId()));
+    }
+
+    private <T, R> List<R> queryInChunks(Collection<T> rows, Function<T, Object> key,
+                                         String sql, RowMapper<R> rowMapper) {
+        List<Object> keys = rows.stream().map(key).toList();
+        List<R> result = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += IN_CHUNK_SIZE) {
+            List<Object> chunk = keys.subList(from, Math.min(from + IN_CHUNK_SIZE, keys.size()));
+            result.addAll(jdbcTemplate.query(sql, Map.of("keys", chunk), rowMapper));
+        }
+        return result;
+    }
+
+    private <T> void batchUpdate(String sql, Collection<T> rows, Function<T, SqlParameterSource> parameters) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows.stream().map(parameters).toArray(SqlParameterSource[]::new));
+        }
+    }
+}
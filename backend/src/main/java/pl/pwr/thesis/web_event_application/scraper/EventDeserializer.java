@@ -7,12 +7,9 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import pl.pwr.thesis.web_event_application.entity.Address;
-import pl.pwr.thesis.web_event_application.entity.Category;
 import pl.pwr.thesis.web_event_application.entity.City;
 import pl.pwr.thesis.web_event_application.entity.Event;
 import pl.pwr.thesis.web_event_application.entity.Location;
-import pl.pwr.thesis.web_event_application.enums.EventCategory;
-import pl.pwr.thesis.web_event_application.machinelearning.EventClassifier;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -32,12 +29,6 @@ public class EventDeserializer extends JsonDeserializer<Event> {
         event.setDescription(node.get("description").asText());
         event.setImage(node.get("image").asText());
 
-        Category category = new Category();
-        var mlCategory = EventClassifier.predictCategory(event.getDescription(),event.getName());
-        EventCategory eventCategory = EventCategory.valueOf(mlCategory);
-        category.setEventCategory(eventCategory);
-        event.setCategory(category);
-
         String startDateString = node.get("startDate").asText();
         String endDateString = node.get("endDate").asText();
 
@@ -4,6 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import pl.pwr.thesis.web_event_application.entity.Event;
+import pl.pwr.thesis.web_event_application.machinelearning.Classification;
+import pl.pwr.thesis.web_event_application.machinelearning.EventClassificationStage;
 
 import java.util.List;
 import java.util.Set;
@@ -13,18 +15,28 @@ public class EventReader {
 
     private final EventConverter eventConverter;
     private final WebScraper webScraper;
+    private final EventClassificationStage classificationStage;
     private static final Logger logger = LoggerFactory.getLogger(EventReader.class);
 
-    public EventReader(EventConverter eventConverter, WebScraper webScraper) {
+    public EventReader(EventConverter eventConverter, WebScraper webScraper,
+                       EventClassificationStage classificationStage) {
         this.eventConverter = eventConverter;
         this.webScraper = webScraper;
+        this.classificationStage = classificationStage;
     }
 
     public List<Event> readEvents() {
         Set<String> eventJsonSet = webScraper.scrapEvents();
+        long start = System.nanoTime();
         List<Event> events = eventConverter.convertJsonToEvents(eventJsonSet);
         // events.forEach(System.out::println);
-        logger.info("Number of json elements converted to events: " + events.size());
+        logger.info("Number of json elements converted to events: {} in {} ms",
+                events.size(), (System.nanoTime() - start) / 1_000_000);
+        List<Classification> classifications = classificationStage.classify(events);
+        long multiLabel = classifications.stream()
+                .filter(classification -> classification != null && classification.getLabels().size() > 1)
+                .count();
+        logger.info("Number of events with more than one category label: {}", multiLabel);
         return events;
     }
 }
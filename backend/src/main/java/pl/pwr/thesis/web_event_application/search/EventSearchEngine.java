@@ -0,0 +1,14 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+
+public interface EventSearchEngine {
+
+    // ids of all events whose name or location name matches the term, most relevant first
+    List<Long> search(String term);
+
+    // the same matches unranked, for filtering and counting
+    RoaringBitmap matchAll(String term);
+}
@@ -0,0 +1,204 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEventSearchEngine implements EventSearchEngine {
+
+    private static final float NAME_WEIGHT = 2f;
+    private static final float LOCATION_WEIGHT = 1f;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    private static final float FUZZY_MATCH_FACTOR = 0.4f;
+
+    private final EventRepository eventRepository;
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documentTokens = new HashMap<>();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // changes arriving while a rebuild reads the database, replayed on top of its result
+    private List<EventCatalogueChange> pendingChanges;
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryEventSearchEngine.class);
+
+    public InMemoryEventSearchEngine(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<SearchDocument> documents;
+        try {
+            documents = eventRepository.findAllSearchDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTokens.clear();
+            trigramIndex.clear();
+            documents.forEach(this::addDocument);
+            pendingChanges.forEach(this::apply);
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index built with {} events and {} terms", documents.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChange(EventCatalogueChange change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            apply(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(EventCatalogueChange change) {
+        removeDocument(change.getEventId());
+        if (change.isSaved()) {
+            addDocument(SearchDocument.of(change.getEvent()));
+        }
+    }
+
+    @Override
+    public List<Long> search(String term) {
+        return score(term).entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public RoaringBitmap matchAll(String term) {
+        RoaringBitmap matches = new RoaringBitmap();
+        score(term).keySet().forEach(eventId -> matches.add(Math.toIntExact(eventId)));
+        return matches;
+    }
+
+    private Map<Long, Float> score(String term) {
+        List<String> queryTokens = SearchTokenizer.tokenize(term);
+        if (queryTokens.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            // every query token has to match, scores of the tokens are summed up
+            for (String queryToken : queryTokens) {
+                Map<Long, Float> tokenScores = scoreToken(queryToken);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((eventId, score) -> score + tokenScores.get(eventId));
+                }
+                if (scores.isEmpty()) {
+                    return Map.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores;
+    }
+
+    private Map<Long, Float> scoreToken(String queryToken) {
+        Map<Long, Float> tokenScores = new HashMap<>();
+        Map<String, Map<Long, Float>> matchingTerms =
+                postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false);
+
+        for (Map.Entry<String, Map<Long, Float>> termPostings : matchingTerms.entrySet()) {
+            float matchFactor = termPostings.getKey().equals(queryToken) ? 1f : PREFIX_MATCH_FACTOR;
+            float idf = inverseDocumentFrequency(termPostings.getValue().size());
+            termPostings.getValue().forEach((eventId, weight) ->
+                    tokenScores.merge(eventId, weight * idf * matchFactor, Math::max));
+        }
+
+        // typo tolerance: terms a few edits away, scored lower the more edits they need
+        trigramIndex.findSimilarTerms(queryToken).forEach((term, distance) -> {
+            Map<Long, Float> termPostings = postings.get(term);
+            float idf = inverseDocumentFrequency(termPostings.size());
+            float matchFactor = FUZZY_MATCH_FACTOR / distance;
+            termPostings.forEach((eventId, weight) ->
+                    tokenScores.merge(eventId, weight * idf * matchFactor, Math::max));
+        });
+        return tokenScores;
+    }
+
+    private float inverseDocumentFrequency(int documentFrequency) {
+        return (float) Math.log(1 + (double) documentTokens.size() / documentFrequency);
+    }
+
+    private void addDocument(SearchDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        SearchTokenizer.tokenize(document.getEventName())
+                .forEach(token -> weights.merge(token, NAME_WEIGHT, Float::sum));
+        SearchTokenizer.tokenize(document.getLocationName())
+                .forEach(token -> weights.merge(token, LOCATION_WEIGHT, Float::sum));
+
+        weights.forEach((token, weight) -> postings
+                .computeIfAbsent(token, key -> {
+                    trigramIndex.addTerm(key);
+                    return new HashMap<>();
+                })
+                .put(document.getEventId(), weight));
+        documentTokens.put(document.getEventId(), weights.keySet());
+    }
+
+    private void removeDocument(long eventId) {
+        Set<String> tokens = documentTokens.remove(eventId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Map<Long, Float> tokenPostings = postings.get(token);
+            if (tokenPostings != null) {
+                tokenPostings.remove(eventId);
+                if (tokenPostings.isEmpty()) {
+                    postings.remove(token);
+                    trigramIndex.removeTerm(token);
+                }
+            }
+        }
+    }
+}
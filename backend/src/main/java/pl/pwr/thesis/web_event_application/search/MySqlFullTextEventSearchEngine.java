@@ -0,0 +1,69 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "mysql")
+public class MySqlFullTextEventSearchEngine implements EventSearchEngine {
+
+    private final EventRepository eventRepository;
+
+    public MySqlFullTextEventSearchEngine(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @Override
+    public List<Long> search(String term) {
+        return score(term).entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public RoaringBitmap matchAll(String term) {
+        RoaringBitmap matches = new RoaringBitmap();
+        score(term).keySet().forEach(eventId -> matches.add(Math.toIntExact(eventId)));
+        return matches;
+    }
+
+    // one query per token, each matching the name or the location name, so like the in memory engine
+    // every token has to match but not necessarily in the same field; scores of the tokens are summed up
+    private Map<Long, Double> score(String term) {
+        List<String> tokens = SearchTokenizer.tokenize(term);
+        if (tokens.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Double> scores = null;
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            for (Object[] row : eventRepository.findScoresByFullTextQuery(prefixQuery(token))) {
+                tokenScores.put(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue());
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((eventId, score) -> score + tokenScores.get(eventId));
+            }
+            if (scores.isEmpty()) {
+                return Map.of();
+            }
+        }
+        return scores;
+    }
+
+    // boolean mode: the token is required and matched as a prefix
+    private static String prefixQuery(String token) {
+        return "+" + token + "*";
+    }
+}
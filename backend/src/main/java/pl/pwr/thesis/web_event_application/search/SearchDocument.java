@@ -0,0 +1,21 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.pwr.thesis.web_event_application.entity.Event;
+
+@Getter
+@AllArgsConstructor
+public class SearchDocument {
+
+    private final Long eventId;
+    private final String eventName;
+    private final String locationName;
+    private final String cityName;
+
+    public static SearchDocument of(Event event) {
+        return new SearchDocument(event.getId(), event.getName(),
+                event.getLocation().getName(),
+                event.getLocation().getAddress().getCity().getName());
+    }
+}
@@ -0,0 +1,25 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public final class SearchTokenizer {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(TextNormalizer.fold(text)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
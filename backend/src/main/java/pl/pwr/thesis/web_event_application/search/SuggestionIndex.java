@@ -0,0 +1,207 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.dto.list.SuggestionDto;
+import pl.pwr.thesis.web_event_application.enums.SuggestionType;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+import pl.pwr.thesis.web_event_application.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class SuggestionIndex {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    // best candidates last, so the head of a bounded heap is the one to drop
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator
+            .comparingInt((Candidate candidate) -> candidate.weight)
+            .thenComparing(candidate -> candidate.suggestion.text, Comparator.reverseOrder());
+
+    private final EventRepository eventRepository;
+    // keyed by every word-start suffix of the folded text, so "wro" also completes "Opera Wrocławska"
+    private final ConcurrentSkipListMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Long, SearchDocument> documents = new HashMap<>();
+    // changes arriving while a rebuild reads the database, replayed on top of its result
+    private List<EventCatalogueChange> pendingChanges;
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    public SuggestionIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        List<SearchDocument> loadedDocuments;
+        try {
+            loadedDocuments = eventRepository.findAllSearchDocuments();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            entries.clear();
+            suggestions.clear();
+            documents.clear();
+            loadedDocuments.forEach(this::addDocument);
+            pendingChanges.forEach(this::apply);
+            pendingChanges = null;
+            logger.info("Suggestion index built with {} suggestions", suggestions.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogueChange(EventCatalogueChange change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        apply(change);
+    }
+
+    private void apply(EventCatalogueChange change) {
+        removeDocument(change.getEventId());
+        if (change.isSaved()) {
+            addDocument(SearchDocument.of(change.getEvent()));
+        }
+    }
+
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String foldedPrefix = TextNormalizer.fold(prefix).strip();
+        if (foldedPrefix.isEmpty()) {
+            return List.of();
+        }
+
+        // the whole prefix range is ranked; weights are read once per match, since writers keep changing them
+        Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, CANDIDATE_ORDER);
+        for (Suggestion suggestion : entries
+                .subMap(foldedPrefix, foldedPrefix + Character.MAX_VALUE)
+                .values()) {
+            if (!seen.add(suggestion)) {
+                continue;
+            }
+            best.add(new Candidate(suggestion, suggestion.weight()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(CANDIDATE_ORDER.reversed());
+        return ranked.stream()
+                .map(candidate -> new SuggestionDto(candidate.suggestion.text, candidate.suggestion.type))
+                .toList();
+    }
+
+    private void addDocument(SearchDocument document) {
+        documents.put(document.getEventId(), document);
+        addReference(SuggestionType.EVENT, document.getEventName());
+        addReference(SuggestionType.LOCATION, document.getLocationName());
+        addReference(SuggestionType.CITY, document.getCityName());
+    }
+
+    private void removeDocument(long eventId) {
+        SearchDocument document = documents.remove(eventId);
+        if (document != null) {
+            removeReference(SuggestionType.EVENT, document.getEventName());
+            removeReference(SuggestionType.LOCATION, document.getLocationName());
+            removeReference(SuggestionType.CITY, document.getCityName());
+        }
+    }
+
+    private void addReference(SuggestionType type, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String identity = identity(type, text);
+        Suggestion suggestion = suggestions.get(identity);
+        if (suggestion == null) {
+            suggestion = new Suggestion(text.strip(), type);
+            suggestions.put(identity, suggestion);
+            for (String suffix : wordSuffixes(TextNormalizer.fold(text).strip())) {
+                entries.put(suffix + KEY_SEPARATOR + identity, suggestion);
+            }
+        }
+        suggestion.references.incrementAndGet();
+    }
+
+    private void removeReference(SuggestionType type, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String identity = identity(type, text);
+        Suggestion suggestion = suggestions.get(identity);
+        if (suggestion != null && suggestion.references.decrementAndGet() == 0) {
+            suggestions.remove(identity);
+            for (String suffix : wordSuffixes(TextNormalizer.fold(text).strip())) {
+                entries.remove(suffix + KEY_SEPARATOR + identity);
+            }
+        }
+    }
+
+    private static String identity(SuggestionType type, String text) {
+        return type.ordinal() + String.valueOf(KEY_SEPARATOR) + TextNormalizer.fold(text).strip();
+    }
+
+    private static List<String> wordSuffixes(String foldedText) {
+        List<String> suffixes = new ArrayList<>();
+        for (int i = 0; i < foldedText.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(foldedText.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(foldedText.charAt(i - 1)));
+            if (wordStart) {
+                suffixes.add(foldedText.substring(i));
+            }
+        }
+        return suffixes;
+    }
+
+    private static class Suggestion {
+
+        private final String text;
+        private final SuggestionType type;
+        // number of events referring to this name, used as ranking weight
+        private final AtomicInteger references = new AtomicInteger();
+
+        private Suggestion(String text, SuggestionType type) {
+            this.text = text;
+            this.type = type;
+        }
+
+        private int weight() {
+            return references.get();
+        }
+    }
+
+    private static class Candidate {
+
+        private final Suggestion suggestion;
+        private final int weight;
+
+        private Candidate(Suggestion suggestion, int weight) {
+            this.suggestion = suggestion;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+class TrigramIndex {
+
+    private static final int MIN_FUZZY_TERM_LENGTH = 4;
+    private static final char PADDING = '$';
+
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    void addTerm(String term) {
+        for (String trigram : trigrams(term)) {
+            termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+        }
+    }
+
+    void removeTerm(String term) {
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    termsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        termsByTrigram.clear();
+    }
+
+    // indexed terms within the allowed edit distance of the query term, with their distance
+    Map<String, Integer> findSimilarTerms(String queryTerm) {
+        int maxEdits = maxEdits(queryTerm.length());
+        if (maxEdits == 0) {
+            return Map.of();
+        }
+
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        Set<String> queryTrigrams = trigrams(queryTerm);
+        for (String trigram : queryTrigrams) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms != null) {
+                terms.forEach(term -> sharedTrigrams.merge(term, 1, Integer::sum));
+            }
+        }
+
+        // every edit destroys at most three trigrams, candidates sharing fewer cannot be close enough
+        int minSharedTrigrams = queryTrigrams.size() - 3 * maxEdits;
+        LevenshteinDistance levenshtein = new LevenshteinDistance(maxEdits);
+        Map<String, Integer> similarTerms = new HashMap<>();
+        sharedTrigrams.forEach((term, shared) -> {
+            if (shared >= minSharedTrigrams
+                    && Math.abs(term.length() - queryTerm.length()) <= maxEdits) {
+                int distance = levenshtein.apply(queryTerm, term);
+                if (distance > 0) {
+                    similarTerms.put(term, distance);
+                }
+            }
+        });
+        return similarTerms;
+    }
+
+    static int maxEdits(int termLength) {
+        if (termLength < MIN_FUZZY_TERM_LENGTH) {
+            return 0;
+        }
+        return termLength < 8 ? 1 : 2;
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = PADDING + term + PADDING;
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
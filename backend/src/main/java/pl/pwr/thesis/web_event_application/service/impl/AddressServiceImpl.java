@@ -4,26 +4,37 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.cache.ReferenceDataCache;
 import pl.pwr.thesis.web_event_application.entity.Address;
 import pl.pwr.thesis.web_event_application.repository.AddressRepository;
 import pl.pwr.thesis.web_event_application.service.interfaces.AddressService;
 
+import java.util.Optional;
+
 @Service
 public class AddressServiceImpl implements AddressService {
 
     private final AddressRepository addressRepository;
+    private final ReferenceDataCache referenceDataCache;
     private static final Logger logger = LoggerFactory.getLogger(CityServiceImpl.class);
 
-    public AddressServiceImpl(AddressRepository addressRepository) {
+    public AddressServiceImpl(AddressRepository addressRepository, ReferenceDataCache referenceDataCache) {
         this.addressRepository = addressRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
     @Transactional
     public Address findOrSaveAddress(Address address) {
+        Optional<Address> cachedAddress = referenceDataCache.address(address.getCity(), address.getStreet());
+        if (cachedAddress.isPresent()) {
+            return cachedAddress.get();
+        }
         try {
-            return addressRepository.findAddressByStreetAndCity(address.getStreet(), address.getCity())
+            Address savedAddress = addressRepository.findAddressByStreetAndCity(address.getStreet(), address.getCity())
                     .orElseGet(() -> addressRepository.save(address));
+            referenceDataCache.putAddress(savedAddress, address.getCity());
+            return savedAddress;
         } catch (Exception e) {
             logger.error("Error in saving address: {} to database", address.getStreet(), e);
             throw new RuntimeException(e);
@@ -0,0 +1,70 @@
+package pl.pwr.thesis.web_event_application.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+import pl.pwr.thesis.web_event_application.entity.ArchivedEvent;
+import pl.pwr.thesis.web_event_application.mapper.EventMapper;
+import pl.pwr.thesis.web_event_application.repository.ArchivedEventRepository;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+import pl.pwr.thesis.web_event_application.service.interfaces.ArchiveService;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class ArchiveServiceImpl implements ArchiveService {
+
+    private final EventRepository eventRepository;
+    private final ArchivedEventRepository archivedEventRepository;
+    private final EventMapper eventMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveServiceImpl.class);
+
+    public ArchiveServiceImpl(EventRepository eventRepository,
+                              ArchivedEventRepository archivedEventRepository,
+                              EventMapper eventMapper,
+                              ApplicationEventPublisher eventPublisher) {
+        this.eventRepository = eventRepository;
+        this.archivedEventRepository = archivedEventRepository;
+        this.eventMapper = eventMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public int archiveEvents(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+        int archivedEvents = archivedEventRepository.copyEvents(eventIds);
+        int archivedReactions = archivedEventRepository.copyReactions(eventIds);
+        int archivedFavourites = archivedEventRepository.copyFavourites(eventIds);
+        eventRepository.deleteAllByIdIn(eventIds);
+
+        // in-memory indexes drop the events once the transaction commits
+        eventIds.forEach(eventId -> eventPublisher.publishEvent(EventCatalogueChange.deleted(eventId)));
+        logger.info("Archived {} events with {} reactions and {} favourites",
+                archivedEvents, archivedReactions, archivedFavourites);
+        return archivedEvents;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventDto> fetchArchivedEvents(int page, int size, Optional<String> city) {
+        Pageable pageable = PageRequest.of(page, size);
+        List<ArchivedEvent> archivedEvents = city
+                .map(cityName -> archivedEventRepository
+                        .findAllByLocationAddressCityNameOrderByEndDateDesc(cityName, pageable))
+                .orElseGet(() -> archivedEventRepository.findAllByOrderByEndDateDesc(pageable));
+        return archivedEvents.stream()
+                .map(eventMapper::archivedEventToDto)
+                .toList();
+    }
+}
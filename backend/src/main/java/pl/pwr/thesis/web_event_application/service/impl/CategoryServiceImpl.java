@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.cache.ReferenceDataCache;
 import pl.pwr.thesis.web_event_application.dto.list.CategoryDto;
 import pl.pwr.thesis.web_event_application.entity.Category;
 import pl.pwr.thesis.web_event_application.mapper.CategoryMapper;
@@ -11,6 +12,7 @@ import pl.pwr.thesis.web_event_application.repository.CategoryRepository;
 import pl.pwr.thesis.web_event_application.service.interfaces.CategoryService;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,11 +20,14 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ReferenceDataCache referenceDataCache;
     private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                               ReferenceDataCache referenceDataCache) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -37,9 +42,15 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional
     public Category findOrSaveCategory(Category category) {
+        Optional<Category> cachedCategory = referenceDataCache.category(category.getEventCategory());
+        if (cachedCategory.isPresent()) {
+            return cachedCategory.get();
+        }
         try {
-            return categoryRepository.findCategoryByEventCategory(category.getEventCategory())
+            Category savedCategory = categoryRepository.findCategoryByEventCategory(category.getEventCategory())
                     .orElseGet(() -> categoryRepository.save(category));
+            referenceDataCache.putCategory(savedCategory);
+            return savedCategory;
         } catch (Exception e) {
             logger.error("Error in saving category: {} to database", category.getEventCategory(), e);
             throw new RuntimeException(e);
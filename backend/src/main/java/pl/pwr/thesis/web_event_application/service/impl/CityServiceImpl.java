@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.cache.ReferenceDataCache;
 import pl.pwr.thesis.web_event_application.dto.list.CityDto;
 import pl.pwr.thesis.web_event_application.entity.City;
 import pl.pwr.thesis.web_event_application.mapper.CityMapper;
@@ -11,6 +12,7 @@ import pl.pwr.thesis.web_event_application.repository.CityRepository;
 import pl.pwr.thesis.web_event_application.service.interfaces.CityService;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,11 +20,14 @@ public class CityServiceImpl implements CityService {
 
     private final CityRepository cityRepository;
     private final CityMapper cityMapper;
+    private final ReferenceDataCache referenceDataCache;
     private static final Logger logger = LoggerFactory.getLogger(CityServiceImpl.class);
 
-    public CityServiceImpl(CityRepository cityRepository, CityMapper cityMapper) {
+    public CityServiceImpl(CityRepository cityRepository, CityMapper cityMapper,
+                           ReferenceDataCache referenceDataCache) {
         this.cityRepository = cityRepository;
         this.cityMapper = cityMapper;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -44,9 +49,15 @@ public class CityServiceImpl implements CityService {
     @Override
     @Transactional
     public City findOrSaveCity(City city) {
+        Optional<City> cachedCity = referenceDataCache.city(city.getName());
+        if (cachedCity.isPresent()) {
+            return cachedCity.get();
+        }
         try {
-            return cityRepository.findCityByName(city.getName())
+            City savedCity = cityRepository.findCityByName(city.getName())
                     .orElseGet(() -> cityRepository.save(city));
+            referenceDataCache.putCity(savedCity);
+            return savedCity;
         } catch (Exception e) {
             logger.error("Error in saving city: {} to database", city.getName(), e);
             throw new RuntimeException(e);
@@ -1,16 +1,29 @@
 package pl.pwr.thesis.web_event_application.service.impl;
 
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.cache.EventDtoCache;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueFilter;
+import pl.pwr.thesis.web_event_application.catalogue.DateWindow;
+import pl.pwr.thesis.web_event_application.catalogue.EventBitmapIndex;
+import pl.pwr.thesis.web_event_application.catalogue.EventCatalogueChange;
+import pl.pwr.thesis.web_event_application.catalogue.EventCounter;
+import pl.pwr.thesis.web_event_application.clustering.MarkerClusterIndex;
+import pl.pwr.thesis.web_event_application.dto.CursorPage;
 import pl.pwr.thesis.web_event_application.dto.SearchEventsResult;
+import pl.pwr.thesis.web_event_application.dto.list.EventCountsDto;
 import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+import pl.pwr.thesis.web_event_application.dto.list.FacetCountsDto;
+import pl.pwr.thesis.web_event_application.dto.list.SuggestionDto;
+import pl.pwr.thesis.web_event_application.dto.map.ClusterDtoMap;
 import pl.pwr.thesis.web_event_application.dto.map.EventDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.MapViewport;
 import pl.pwr.thesis.web_event_application.entity.Address;
 import pl.pwr.thesis.web_event_application.entity.Category;
 import pl.pwr.thesis.web_event_application.entity.City;
@@ -18,9 +31,12 @@ import pl.pwr.thesis.web_event_application.entity.Event;
 import pl.pwr.thesis.web_event_application.entity.Location;
 import pl.pwr.thesis.web_event_application.enums.EventCategory;
 import pl.pwr.thesis.web_event_application.geocode.Geocoder;
-import pl.pwr.thesis.web_event_application.mapper.EventMapper;
+import pl.pwr.thesis.web_event_application.ingestion.EventIngestionPipeline;
+import pl.pwr.thesis.web_event_application.pagination.EventCursor;
+import pl.pwr.thesis.web_event_application.repository.EventDtoRepository;
 import pl.pwr.thesis.web_event_application.repository.EventRepository;
-import pl.pwr.thesis.web_event_application.repository.specification.EventSpecifications;
+import pl.pwr.thesis.web_event_application.search.EventSearchEngine;
+import pl.pwr.thesis.web_event_application.search.SuggestionIndex;
 import pl.pwr.thesis.web_event_application.service.interfaces.AddressService;
 import pl.pwr.thesis.web_event_application.service.interfaces.CategoryService;
 import pl.pwr.thesis.web_event_application.service.interfaces.CityService;
@@ -28,44 +44,76 @@ import pl.pwr.thesis.web_event_application.service.interfaces.EventService;
 import pl.pwr.thesis.web_event_application.service.interfaces.LocationService;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
-    private final EventMapper eventMapper;
+    private final EventDtoRepository eventDtoRepository;
+    private final EventDtoCache eventDtoCache;
     private final LocationService locationService;
     private final AddressService addressService;
     private final CityService cityService;
     private final CategoryService categoryService;
     private final Geocoder geocoder;
+    private final MarkerClusterIndex markerClusterIndex;
+    private final EventBitmapIndex eventBitmapIndex;
+    private final EventCounter eventCounter;
+    private final EventSearchEngine searchEngine;
+    private final SuggestionIndex suggestionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventIngestionPipeline ingestionPipeline;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAP_ID_CHUNK_SIZE = 1000;
     private static final Logger logger = LoggerFactory.getLogger(EventServiceImpl.class);
 
-    public EventServiceImpl(EventRepository eventRepository, EventMapper eventMapper,
+    public EventServiceImpl(EventRepository eventRepository, EventDtoRepository eventDtoRepository,
+                            EventDtoCache eventDtoCache,
                             LocationService locationService, AddressService addressService,
                             CityService cityService, CategoryService categoryService,
-                            Geocoder geocoder) {
+                            Geocoder geocoder, MarkerClusterIndex markerClusterIndex,
+                            EventBitmapIndex eventBitmapIndex, EventCounter eventCounter,
+                            EventSearchEngine searchEngine, SuggestionIndex suggestionIndex,
+                            ApplicationEventPublisher eventPublisher,
+                            EventIngestionPipeline ingestionPipeline) {
         this.eventRepository = eventRepository;
-        this.eventMapper = eventMapper;
+        this.eventDtoRepository = eventDtoRepository;
+        this.eventDtoCache = eventDtoCache;
         this.locationService = locationService;
         this.addressService = addressService;
         this.cityService = cityService;
         this.categoryService = categoryService;
         this.geocoder = geocoder;
+        this.markerClusterIndex = markerClusterIndex;
+        this.eventBitmapIndex = eventBitmapIndex;
+        this.eventCounter = eventCounter;
+        this.searchEngine = searchEngine;
+        this.suggestionIndex = suggestionIndex;
+        this.eventPublisher = eventPublisher;
+        this.ingestionPipeline = ingestionPipeline;
     }
 
     @Override
     public long countEvents() {
-        return eventRepository.count();
+        return eventCounter.total();
+    }
+
+    @Override
+    public EventCountsDto fetchEventCounts() {
+        return eventCounter.counts();
     }
 
     @Override
     public Optional<EventDto> fetchEventById(long id) {
-        return eventRepository
-                .findById(id)
-                .map(eventMapper::eventToDto);
+        return fetchEventsByIds(List.of(id)).stream().findFirst();
     }
 
     @Override
@@ -78,91 +126,219 @@ public class EventServiceImpl implements EventService {
     public List<EventDto> fetchAllEventsList(int page, int size,
                                              Optional<String> city,
                                              Optional<List<String>> categories,
-                                             Optional<String> searchTerm) {
+                                             Optional<String> searchTerm,
+                                             DateWindow dateWindow) {
+        if (searchTerm.isPresent()) {
+            return fetchRankedEventsList(page, size, city, categories, searchTerm.get(), dateWindow);
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Specification<Event> spec = buildEventSpecification(city, categories, searchTerm);
+        CatalogueFilter filter = buildCatalogueFilter(city, categories, Optional.empty(), dateWindow);
 
         try {
-            Page<Event> eventPage = eventRepository.findAll(spec, pageable);
-            return eventPage.stream()
-                    .map(eventMapper::eventToDto)
-                    .toList();
+            RoaringBitmap eventIds = eventBitmapIndex.resolve(filter);
+            return fetchEventsByIds(EventBitmapIndex.idsOnPage(eventIds, pageable));
         } catch (Exception e) {
             logger.error("Error in fetching all events for List", e);
             throw new RuntimeException("Error fetching events", e);
         }
     }
 
+    @Override
+    public CursorPage<EventDto> fetchAllEventsListAfter(String cursor, int size,
+                                                        Optional<String> city,
+                                                        Optional<List<String>> categories,
+                                                        Optional<String> searchTerm,
+                                                        DateWindow dateWindow) {
+        CatalogueFilter filter = buildCatalogueFilter(city, categories, searchTerm, dateWindow);
+        Optional<EventCursor> after = cursor.isBlank()
+                ? Optional.empty()
+                : Optional.of(EventCursor.decode(cursor));
 
-    public List<EventDtoMap> fetchAllEventsMap(Optional<String> city,
-                                               Optional<List<String>> categories,
-                                               Optional<String> searchTerm) {
-        Specification<Event> spec = buildEventSpecification(city, categories, searchTerm);
+        try {
+            // search matches are sought in the bitmap index, so the database only gets the ids of the page
+            List<EventDto> eventDtos = filter.getMatchingIds() != null
+                    ? fetchEventsByIds(eventBitmapIndex.idsAfter(eventBitmapIndex.resolve(filter), after, size + 1))
+                    : eventDtoRepository.findAllAfter(filter, after, size + 1);
+            boolean hasNext = eventDtos.size() > size;
+            List<EventDto> pageEventDtos = hasNext ? eventDtos.subList(0, size) : eventDtos;
+
+            String nextCursor = hasNext
+                    ? EventCursor.of(pageEventDtos.get(pageEventDtos.size() - 1)).encode()
+                    : null;
+            return new CursorPage<>(pageEventDtos, nextCursor);
+        } catch (Exception e) {
+            logger.error("Error in fetching events for List after cursor {}", cursor, e);
+            throw new RuntimeException("Error fetching events", e);
+        }
+    }
+
+    // decided before the map is streamed, so an empty result can still be answered with no content
+    @Override
+    public boolean hasEventsForMap(Optional<MapViewport> viewport,
+                                   Optional<String> city,
+                                   Optional<List<String>> categories,
+                                   Optional<String> searchTerm,
+                                   DateWindow dateWindow) {
+        CatalogueFilter filter = buildCatalogueFilter(city, categories, searchTerm, dateWindow);
+        if (filter.isEmpty()) {
+            return eventDtoRepository.existsForMap(null, viewport);
+        }
+        RoaringBitmap eventIds = eventBitmapIndex.resolve(filter);
+        if (eventIds.isEmpty() || viewport.isEmpty()) {
+            return !eventIds.isEmpty();
+        }
+        List<Long> chunk = new ArrayList<>(MAP_ID_CHUNK_SIZE);
+        for (int eventId : eventIds) {
+            chunk.add((long) eventId);
+            if (chunk.size() == MAP_ID_CHUNK_SIZE) {
+                if (eventDtoRepository.existsForMap(chunk, viewport)) {
+                    return true;
+                }
+                chunk = new ArrayList<>(MAP_ID_CHUNK_SIZE);
+            }
+        }
+        return eventDtoRepository.existsForMap(chunk, viewport);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void fetchAllEventsMap(Optional<MapViewport> viewport,
+                                  Optional<String> city,
+                                  Optional<List<String>> categories,
+                                  Optional<String> searchTerm,
+                                  DateWindow dateWindow,
+                                  Consumer<EventDtoMap> consumer) {
+        // the zoom level caps the markers, a viewport zoomed out far is served by the clusters
+        int limit = viewport.map(MapViewport::eventLimit).orElse(Integer.MAX_VALUE);
+        CatalogueFilter filter = buildCatalogueFilter(city, categories, searchTerm, dateWindow);
 
         try {
-            List<Event> events = eventRepository.findAll(spec);
-            return events.stream()
-                    .map(eventMapper::eventToDtoMap)
-                    .toList();
+            if (filter.isEmpty()) {
+                eventDtoRepository.streamAllForMap(null, viewport, limit, consumer);
+                return;
+            }
+            // filters are resolved in memory, the database only sees primary key lookups
+            List<Long> chunk = new ArrayList<>(MAP_ID_CHUNK_SIZE);
+            for (int eventId : eventBitmapIndex.resolve(filter)) {
+                chunk.add((long) eventId);
+                if (chunk.size() == MAP_ID_CHUNK_SIZE) {
+                    int streamed = eventDtoRepository.streamAllForMap(chunk, viewport, limit, consumer);
+                    if (limit != Integer.MAX_VALUE) {
+                        limit -= streamed;
+                        if (limit <= 0) {
+                            return;
+                        }
+                    }
+                    chunk = new ArrayList<>(MAP_ID_CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                eventDtoRepository.streamAllForMap(chunk, viewport, limit, consumer);
+            }
         } catch (Exception e) {
             logger.error("Error in fetching all events for Map", e);
             throw new RuntimeException("Error fetching events", e);
         }
     }
 
-    private Specification<Event> buildEventSpecification(Optional<String> city,
-                                                         Optional<List<String>> categories,
-                                                         Optional<String> searchTerm) {
-        Specification<Event> spec = Specification.where(null);
+    @Override
+    public List<ClusterDtoMap> fetchEventClusters(MapViewport viewport,
+                                                  Optional<List<String>> categories,
+                                                  DateWindow dateWindow) {
+        Collection<EventCategory> eventCategories = categories.orElse(List.of()).stream()
+                .map(category -> EventCategory.valueOf(category.toUpperCase()))
+                .toList();
+        // the same date window as the list and the map, resolved on the start and end day bitmaps
+        RoaringBitmap eventsInWindow = dateWindow.isUnbounded()
+                ? null
+                : eventBitmapIndex.resolve(buildCatalogueFilter(Optional.empty(), Optional.empty(),
+                        Optional.empty(), dateWindow));
+        return markerClusterIndex.findClusters(viewport, eventCategories, eventsInWindow);
+    }
+
+    @Override
+    public FacetCountsDto fetchFacetCounts(Optional<String> city,
+                                           Optional<List<String>> categories,
+                                           Optional<String> searchTerm,
+                                           DateWindow dateWindow) {
+        return eventBitmapIndex.countFacets(buildCatalogueFilter(city, categories, searchTerm, dateWindow));
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    private List<EventDto> fetchRankedEventsList(int page, int size,
+                                                 Optional<String> city,
+                                                 Optional<List<String>> categories,
+                                                 String searchTerm,
+                                                 DateWindow dateWindow) {
+        logger.info("Applying filter by search term: {}", searchTerm);
+        List<Long> rankedIds = searchEngine.search(searchTerm);
+
+        try {
+            // every match is filtered first, ranking order and paging apply to what is left
+            CatalogueFilter filter = buildCatalogueFilter(city, categories, Optional.empty(), dateWindow);
+            if (!filter.isEmpty()) {
+                RoaringBitmap filteredIds = eventBitmapIndex.resolve(filter);
+                rankedIds = rankedIds.stream()
+                        .filter(eventId -> filteredIds.contains(eventId.intValue()))
+                        .toList();
+            }
+
+            int from = Math.min(page * size, rankedIds.size());
+            List<Long> pageIds = rankedIds.subList(from, Math.min(from + size, rankedIds.size()));
+            return fetchEventsByIds(pageIds);
+        } catch (Exception e) {
+            logger.error("Error in searching events for List", e);
+            throw new RuntimeException("Error fetching events", e);
+        }
+    }
+
+    @Override
+    public List<EventDto> fetchEventsByIds(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EventDto> eventDtos = eventDtoCache.getAll(eventIds, missingIds ->
+                eventDtoRepository.findAllByIds(new ArrayList<>(missingIds)).stream()
+                        .collect(Collectors.toMap(EventDto::getId, Function.identity())));
+        return eventIds.stream()
+                .map(eventDtos::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private CatalogueFilter buildCatalogueFilter(Optional<String> city,
+                                                 Optional<List<String>> categories,
+                                                 Optional<String> searchTerm,
+                                                 DateWindow dateWindow) {
+        CatalogueFilter.CatalogueFilterBuilder filter = CatalogueFilter.builder()
+                .from(dateWindow.getFrom())
+                .to(dateWindow.getTo());
 
         if (city.isPresent()) {
-            String cityName = city.get();
-            logger.info("Applying filter by city name: {}", cityName);
-            spec = spec.and(EventSpecifications.hasCityName(cityName));
+            logger.info("Applying filter by city name: {}", city.get());
+            filter.cityName(city.get());
         }
         if (categories.isPresent() && !categories.get().isEmpty()) {
-            List<EventCategory> eventCategories = categories.get().stream()
-                    .map(category -> EventCategory.valueOf(category.toUpperCase()))
-                    .toList();
-
             logger.info("Applying filter by category name: {}", categories);
-            spec = spec.and(EventSpecifications.hasCategory(eventCategories));
+            filter.categories(categories.get().stream()
+                    .map(category -> EventCategory.valueOf(category.toUpperCase()))
+                    .toList());
         }
         if (searchTerm.isPresent()) {
-            String term = searchTerm.get();
-            logger.info("Applying filter by search term: {}", term);
-            spec = spec.and(EventSpecifications.eventTitleOrLocationContains(term));
+            logger.info("Applying filter by search term: {}", searchTerm.get());
+            filter.matchingIds(searchEngine.matchAll(searchTerm.get()));
         }
 
-        return spec;
+        return filter.build();
     }
 
-
     @Override
     public SearchEventsResult saveEvents(List<Event> events) {
-        List<Event> notSavedEvents = new ArrayList<>();
-        List<Event> savedEvents = new ArrayList<>();
-
-        if (!events.isEmpty()) {
-            logger.debug("Saving {} events to the database", events.size());
-
-            for (Event event : events) {
-                try {
-                    logger.info("SAVING EVENT " + event.getName());
-                    saveEvent(event);
-                    savedEvents.add(event);
-                } catch (Exception e) {
-                    logger.error("Error when saving event: {} to the database", event.getName(), e);
-                    notSavedEvents.add(event);
-                }
-            }
-        } else {
-            logger.info("No events to save! The list is empty.");
-        }
-        return new SearchEventsResult(
-                savedEvents.size(), notSavedEvents.size(),
-                savedEvents, notSavedEvents
-        );
+        return ingestionPipeline.ingest(events);
     }
 
     @Override
@@ -227,6 +403,7 @@ public class EventServiceImpl implements EventService {
             event.setLocation(savedLocation);
         }
         eventRepository.save(event);
+        eventPublisher.publishEvent(EventCatalogueChange.saved(event));
     }
 
     @Override
@@ -237,6 +414,7 @@ public class EventServiceImpl implements EventService {
             throw new IllegalArgumentException("Event with ID " + id + " does not exist.");
         }
         eventRepository.deleteById(id);
+        eventPublisher.publishEvent(EventCatalogueChange.deleted(id));
         logger.info("Successfully deleted event with ID {}", id);
     }
 }
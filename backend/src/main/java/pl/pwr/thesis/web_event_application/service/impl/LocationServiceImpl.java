@@ -4,26 +4,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.cache.ReferenceDataCache;
 import pl.pwr.thesis.web_event_application.entity.Location;
 import pl.pwr.thesis.web_event_application.repository.LocationRepository;
 import pl.pwr.thesis.web_event_application.service.interfaces.LocationService;
 
+import java.util.Optional;
+
 @Service
 public class LocationServiceImpl implements LocationService {
 
     private final LocationRepository locationRepository;
+    private final ReferenceDataCache referenceDataCache;
     private static final Logger logger = LoggerFactory.getLogger(CityServiceImpl.class);
 
-    public LocationServiceImpl(LocationRepository locationRepository) {
+    public LocationServiceImpl(LocationRepository locationRepository, ReferenceDataCache referenceDataCache) {
         this.locationRepository = locationRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
     @Transactional
     public Location findOrSaveLocation(Location location) {
+        Optional<Location> cachedLocation = referenceDataCache.location(location.getAddress(), location.getName());
+        if (cachedLocation.isPresent()) {
+            return cachedLocation.get();
+        }
         try {
-            return locationRepository.findLocationByNameAndAddress(location.getName(), location.getAddress())
+            Location savedLocation = locationRepository.findLocationByNameAndAddress(
+                            location.getName(), location.getAddress())
                     .orElseGet(() -> locationRepository.save(location));
+            referenceDataCache.putLocation(savedLocation, location.getAddress());
+            return savedLocation;
         } catch (Exception e) {
             logger.error("Error in saving location: {} to database", location.getName(), e);
             throw new RuntimeException(e);
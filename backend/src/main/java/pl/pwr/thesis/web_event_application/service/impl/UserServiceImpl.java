@@ -1,11 +1,11 @@
 package pl.pwr.thesis.web_event_application.service.impl;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -14,6 +14,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueFilter;
+import pl.pwr.thesis.web_event_application.catalogue.DateWindow;
+import pl.pwr.thesis.web_event_application.catalogue.EventBitmapIndex;
 import pl.pwr.thesis.web_event_application.dto.authorization.LoginDto;
 import pl.pwr.thesis.web_event_application.dto.authorization.RegisterDto;
 import pl.pwr.thesis.web_event_application.dto.authorization.UserDto;
@@ -42,9 +45,9 @@ import pl.pwr.thesis.web_event_application.repository.EventRepository;
 import pl.pwr.thesis.web_event_application.repository.ReactionRepository;
 import pl.pwr.thesis.web_event_application.repository.RoleRepository;
 import pl.pwr.thesis.web_event_application.repository.UserRepository;
-import pl.pwr.thesis.web_event_application.repository.specification.EventSpecifications;
 import pl.pwr.thesis.web_event_application.security.jwt.JwtUtils;
 import pl.pwr.thesis.web_event_application.security.service.UserDetailsImpl;
+import pl.pwr.thesis.web_event_application.service.interfaces.EventService;
 import pl.pwr.thesis.web_event_application.service.interfaces.UserInformationService;
 import pl.pwr.thesis.web_event_application.service.interfaces.UserService;
 
@@ -69,6 +72,8 @@ public class UserServiceImpl implements UserService {
     private final JwtUtils jwtUtils;
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     private final EventRepository eventRepository;
+    private final EventBitmapIndex eventBitmapIndex;
+    private final EventService eventService;
 
     public UserServiceImpl(UserRepository userRepository,
                            RoleRepository roleRepository,
@@ -80,7 +85,8 @@ public class UserServiceImpl implements UserService {
                            UserMapper userMapper,
                            EventMapper eventMapper,
                            AuthenticationManager authenticationManager,
-                           JwtUtils jwtUtils, EventRepository eventRepository) {
+                           JwtUtils jwtUtils, EventRepository eventRepository,
+                           EventBitmapIndex eventBitmapIndex, EventService eventService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.categoryRepository = categoryRepository;
@@ -93,6 +99,8 @@ public class UserServiceImpl implements UserService {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.eventRepository = eventRepository;
+        this.eventBitmapIndex = eventBitmapIndex;
+        this.eventService = eventService;
     }
 
     @Override
@@ -269,18 +277,21 @@ public class UserServiceImpl implements UserService {
         var city = user.getUserInformation().getCity();
         var categories = user.getUserInformation().getCategories();
 
-        Specification<Event> spec = Specification.where(null);
-
-        spec = spec.and(EventSpecifications.hasCityName(city.getName()));
-
         List<EventCategory> eventCategories = categories.stream()
                 .map(Category::getEventCategory)
                 .toList();
-        spec = spec.and(EventSpecifications.hasCategory(eventCategories));
+        if (eventCategories.isEmpty()) {
+            return List.of();
+        }
 
-        return eventRepository.findAll(spec, pageable).stream()
-                .map(eventMapper::eventToDto)
-                .collect(Collectors.toList());
+        // recommending events that are already over is pointless
+        CatalogueFilter filter = CatalogueFilter.builder()
+                .cityName(city.getName())
+                .categories(eventCategories)
+                .from(DateWindow.upcoming().getFrom())
+                .build();
+        RoaringBitmap eventIds = eventBitmapIndex.resolve(filter);
+        return eventService.fetchEventsByIds(EventBitmapIndex.idsOnPage(eventIds, pageable));
     }
 
     @Override
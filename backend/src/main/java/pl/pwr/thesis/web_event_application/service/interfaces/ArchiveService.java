@@ -0,0 +1,13 @@
+package pl.pwr.thesis.web_event_application.service.interfaces;
+
+import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchiveService {
+
+    int archiveEvents(List<Long> eventIds);
+
+    List<EventDto> fetchArchivedEvents(int page, int size, Optional<String> city);
+}
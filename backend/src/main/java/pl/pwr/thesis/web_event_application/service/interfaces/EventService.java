@@ -1,12 +1,20 @@
 package pl.pwr.thesis.web_event_application.service.interfaces;
 
+import pl.pwr.thesis.web_event_application.catalogue.DateWindow;
+import pl.pwr.thesis.web_event_application.dto.CursorPage;
 import pl.pwr.thesis.web_event_application.dto.SearchEventsResult;
+import pl.pwr.thesis.web_event_application.dto.list.EventCountsDto;
 import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+import pl.pwr.thesis.web_event_application.dto.list.FacetCountsDto;
+import pl.pwr.thesis.web_event_application.dto.list.SuggestionDto;
+import pl.pwr.thesis.web_event_application.dto.map.ClusterDtoMap;
 import pl.pwr.thesis.web_event_application.dto.map.EventDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.MapViewport;
 import pl.pwr.thesis.web_event_application.entity.Event;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EventService {
 
@@ -14,6 +22,8 @@ public interface EventService {
 
     long countEvents();
 
+    EventCountsDto fetchEventCounts();
+
     void deleteEventById(long id);
 
     void saveEvent(Event event);
@@ -23,11 +33,40 @@ public interface EventService {
     List<EventDto> fetchAllEventsList(int page, int size,
                                       Optional<String> city,
                                       Optional<List<String>> categories,
-                                      Optional<String> searchTerm);
+                                      Optional<String> searchTerm,
+                                      DateWindow dateWindow);
+
+    CursorPage<EventDto> fetchAllEventsListAfter(String cursor, int size,
+                                                 Optional<String> city,
+                                                 Optional<List<String>> categories,
+                                                 Optional<String> searchTerm,
+                                                 DateWindow dateWindow);
+
+    boolean hasEventsForMap(Optional<MapViewport> viewport,
+                            Optional<String> city,
+                            Optional<List<String>> categories,
+                            Optional<String> searchTerm,
+                            DateWindow dateWindow);
+
+    void fetchAllEventsMap(Optional<MapViewport> viewport,
+                           Optional<String> city,
+                           Optional<List<String>> categories,
+                           Optional<String> searchTerm,
+                           DateWindow dateWindow,
+                           Consumer<EventDtoMap> consumer);
 
-    List<EventDtoMap> fetchAllEventsMap(Optional<String> city,
-                                        Optional<List<String>> categories,
-                                        Optional<String> searchTerm);
+    List<ClusterDtoMap> fetchEventClusters(MapViewport viewport,
+                                           Optional<List<String>> categories,
+                                           DateWindow dateWindow);
+
+    FacetCountsDto fetchFacetCounts(Optional<String> city,
+                                    Optional<List<String>> categories,
+                                    Optional<String> searchTerm,
+                                    DateWindow dateWindow);
+
+    List<SuggestionDto> suggest(String prefix, int limit);
 
     Optional<EventDto> fetchEventById(long id);
+
+    List<EventDto> fetchEventsByIds(List<Long> eventIds);
 }
@@ -0,0 +1,22 @@
+package pl.pwr.thesis.web_event_application.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICAL_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    private TextNormalizer() {
+    }
+
+    // "Wrocław" -> "wroclaw"; the Polish ł has no decomposed form, so it is mapped explicitly
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICAL_MARKS.matcher(decomposed).replaceAll("")
+                .replace('ł', 'l')
+                .replace('Ł', 'L')
+                .toLowerCase(Locale.ROOT);
+    }
+}
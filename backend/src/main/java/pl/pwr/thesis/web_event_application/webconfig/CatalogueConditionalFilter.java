@@ -0,0 +1,57 @@
+package pl.pwr.thesis.web_event_application.webconfig;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueVersion;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+// answers conditional GETs of catalogue endpoints before security or any controller touches the database
+public class CatalogueConditionalFilter extends OncePerRequestFilter {
+
+    // reaction counts change without a catalogue change, so they are never validated here
+    private static final String REACTION_COUNT_PATTERN = "/api/events/*/count";
+    // default date windows follow the clock, so validators also roll over once per minute
+    private static final long WINDOW_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final CatalogueVersion catalogueVersion;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private static final Logger logger = LoggerFactory.getLogger(CatalogueConditionalFilter.class);
+
+    public CatalogueConditionalFilter(CatalogueVersion catalogueVersion) {
+        this.catalogueVersion = catalogueVersion;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean readRequest = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+        return !readRequest || pathMatcher.match(REACTION_COUNT_PATTERN, request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long windowStart = System.currentTimeMillis() / WINDOW_MILLIS * WINDOW_MILLIS;
+        String etag = "\"" + catalogueVersion.current() + "-" + windowStart + "\"";
+        long lastModified = Math.max(catalogueVersion.lastModified().toEpochMilli(), windowStart);
+
+        // sets ETag and Last-Modified on the response, and 304 when the client copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            logger.debug("Catalogue unchanged for {}, answering not modified", request.getRequestURI());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,9 +1,13 @@
 package pl.pwr.thesis.web_event_application.webconfig;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import pl.pwr.thesis.web_event_application.catalogue.CatalogueVersion;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -16,7 +20,19 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins(frontendUrl)
                 .allowedHeaders("*")
                 .allowedMethods("*")
+                .exposedHeaders("X-Next-Cursor", "ETag", "Last-Modified")
                 .allowCredentials(true);
 
     }
+
+    // registered ahead of the security chain, whose token filter loads users from the database
+    @Bean
+    public FilterRegistrationBean<CatalogueConditionalFilter> catalogueConditionalFilter(
+            CatalogueVersion catalogueVersion) {
+        FilterRegistrationBean<CatalogueConditionalFilter> registration =
+                new FilterRegistrationBean<>(new CatalogueConditionalFilter(catalogueVersion));
+        registration.addUrlPatterns("/api/events/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package pl.pwr.thesis.web_event_application.catalogue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DateWindowTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    private EventBitmapIndex eventBitmapIndex;
+
+    @BeforeEach
+    void buildIndex() {
+        EventRepository eventRepository = mock(EventRepository.class);
+        when(eventRepository.findAllCatalogueEntries()).thenReturn(List.of(
+                entry(1, DAY.minusDays(2).atTime(18, 0), DAY.minusDays(1).atTime(23, 59, 59)),
+                entry(2, DAY.minusDays(3).atTime(10, 0), DAY.atStartOfDay()),
+                entry(3, DAY.atTime(LocalTime.MAX), DAY.plusDays(1).atTime(2, 0)),
+                entry(4, DAY.plusDays(1).atStartOfDay(), DAY.plusDays(1).atTime(22, 0)),
+                entry(5, DAY.minusDays(10).atStartOfDay(), DAY.plusDays(10).atStartOfDay())));
+        eventBitmapIndex = new EventBitmapIndex(eventRepository);
+        eventBitmapIndex.rebuild();
+    }
+
+    @Test
+    void explicitRangeCoversWholeDaysOnBothEnds() {
+        DateWindow window = DateWindow.of(Optional.empty(), Optional.of(DAY), Optional.of(DAY));
+
+        assertThat(window.getFrom()).isEqualTo(DAY.atStartOfDay());
+        assertThat(window.getTo()).isEqualTo(DAY.atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void singleDayMatchesEventsOverlappingItAtTheBoundaries() {
+        DateWindow window = DateWindow.of(Optional.empty(), Optional.of(DAY), Optional.of(DAY));
+
+        // 2 ends at midnight the day starts, 3 starts at the last instant of the day, 5 spans the day
+        assertThat(resolve(window)).containsExactly(2, 3, 5);
+    }
+
+    @Test
+    void openEndedRangesKeepTheirOtherBound() {
+        DateWindow fromOnly = DateWindow.of(Optional.empty(), Optional.of(DAY.plusDays(1)), Optional.empty());
+        DateWindow toOnly = DateWindow.of(Optional.empty(), Optional.empty(), Optional.of(DAY.minusDays(1)));
+
+        assertThat(fromOnly.getTo()).isNull();
+        assertThat(resolve(fromOnly)).containsExactly(3, 4, 5);
+        assertThat(toOnly.getFrom()).isNull();
+        assertThat(resolve(toOnly)).containsExactly(1, 2, 5);
+    }
+
+    @Test
+    void explicitRangeWinsOverTimeframe() {
+        DateWindow window = DateWindow.of(Optional.of("today"), Optional.of(DAY), Optional.empty());
+
+        assertThat(window.getFrom()).isEqualTo(DAY.atStartOfDay());
+        assertThat(window.getTo()).isNull();
+    }
+
+    @Test
+    void rejectsRangeEndingBeforeItStarts() {
+        assertThatThrownBy(() -> DateWindow.of(Optional.empty(), Optional.of(DAY), Optional.of(DAY.minusDays(1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsUnknownTimeframe() {
+        assertThatThrownBy(() -> DateWindow.of(Optional.of("yesterday"), Optional.empty(), Optional.empty()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void defaultsToUpcomingEvents() {
+        LocalDateTime before = LocalDateTime.now();
+
+        DateWindow window = DateWindow.of(Optional.empty(), Optional.empty(), Optional.empty());
+
+        assertThat(window.getFrom()).isBetween(before, LocalDateTime.now());
+        assertThat(window.getTo()).isNull();
+    }
+
+    @Test
+    void todayEndsWithTheLastInstantOfTheDay() {
+        DateWindow window = DateWindow.of(Optional.of("TODAY"), Optional.empty(), Optional.empty());
+
+        assertThat(window.getTo()).isEqualTo(LocalDate.now().atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void allIsUnbounded() {
+        DateWindow window = DateWindow.of(Optional.of("all"), Optional.empty(), Optional.empty());
+
+        assertThat(window.isUnbounded()).isTrue();
+        assertThat(resolve(window)).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    private List<Integer> resolve(DateWindow window) {
+        CatalogueFilter filter = CatalogueFilter.builder()
+                .from(window.getFrom())
+                .to(window.getTo())
+                .build();
+        return eventBitmapIndex.resolve(filter).stream().boxed().toList();
+    }
+
+    private static CatalogueEntry entry(long eventId, LocalDateTime startDate, LocalDateTime endDate) {
+        return new CatalogueEntry(eventId, "Wrocław", EventCategory.MUSIC, startDate, endDate);
+    }
+}
@@ -0,0 +1,135 @@
+package pl.pwr.thesis.web_event_application.clustering;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import pl.pwr.thesis.web_event_application.dto.map.ClusterDtoMap;
+import pl.pwr.thesis.web_event_application.dto.map.MapViewport;
+import pl.pwr.thesis.web_event_application.enums.EventCategory;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MarkerClusterIndexTest {
+
+    // about 1.5 km apart, one grid cell at zoom 0 and separate cells at the deepest cluster zoom
+    private static final ClusterPoint OPERA = new ClusterPoint(1L, 51.1051, 17.0305, EventCategory.MUSIC);
+    private static final ClusterPoint GALLERY = new ClusterPoint(2L, 51.1100, 17.0520, EventCategory.EXHIBITIONS);
+
+    @Test
+    void mergesNearbyEventsAtLowZoomAndSplitsThemAtHighZoom() {
+        MarkerClusterIndex index = index(OPERA, GALLERY);
+
+        List<ClusterDtoMap> world = index.findClusters(viewport(-90, 90, -180, 180, 0), List.of(), null);
+        List<ClusterDtoMap> street = index.findClusters(viewport(51, 52, 17, 18, MarkerClusterIndex.MAX_CLUSTER_ZOOM),
+                List.of(), null);
+
+        assertThat(world).hasSize(1);
+        assertThat(world.get(0).getCount()).isEqualTo(2);
+        assertThat(world.get(0).getLatitude()).isCloseTo((OPERA.getLatitude() + GALLERY.getLatitude()) / 2,
+                within(1e-9));
+        assertThat(world.get(0).getCategories())
+                .isEqualTo(Map.of(EventCategory.MUSIC, 1, EventCategory.EXHIBITIONS, 1));
+        assertThat(street).hasSize(2).allSatisfy(cluster -> assertThat(cluster.getCount()).isEqualTo(1));
+    }
+
+    @Test
+    void zoomsBeyondTheDeepestClusterZoomUseIt() {
+        MarkerClusterIndex index = index(OPERA, GALLERY);
+
+        List<ClusterDtoMap> deepest = index.findClusters(viewport(51, 52, 17, 18, MarkerClusterIndex.MAX_CLUSTER_ZOOM),
+                List.of(), null);
+        List<ClusterDtoMap> beyond = index.findClusters(viewport(51, 52, 17, 18, MapViewport.MAX_ZOOM),
+                List.of(), null);
+
+        assertThat(beyond).hasSameSizeAs(deepest);
+    }
+
+    @Test
+    void findsTheSameClustersProbingSmallViewportsAndScanningLargeOnes() {
+        MarkerClusterIndex index = index(OPERA, GALLERY);
+
+        // a few cells around the opera are probed, the whole world is scanned
+        List<ClusterDtoMap> probed = index.findClusters(viewport(51.104, 51.106, 17.029, 17.031, 16),
+                List.of(), null);
+        List<ClusterDtoMap> scanned = index.findClusters(viewport(-90, 90, -180, 180, 16), List.of(), null);
+
+        assertThat(probed).hasSize(1);
+        assertThat(probed.get(0).getLatitude()).isEqualTo(OPERA.getLatitude());
+        assertThat(scanned).hasSize(2);
+    }
+
+    @Test
+    void viewportAcrossTheAntimeridianCoversBothSides() {
+        ClusterPoint east = new ClusterPoint(1L, -17.7, 179.9, EventCategory.MUSIC);
+        ClusterPoint west = new ClusterPoint(2L, -17.7, -179.9, EventCategory.MUSIC);
+        ClusterPoint greenwich = new ClusterPoint(3L, 51.48, 0.0, EventCategory.MUSIC);
+        MarkerClusterIndex index = index(east, west, greenwich);
+
+        for (int zoom : new int[]{0, 3, 8, MarkerClusterIndex.MAX_CLUSTER_ZOOM}) {
+            List<ClusterDtoMap> across = index.findClusters(viewport(-20, -15, 179, -179, zoom), List.of(), null);
+
+            assertThat(across.stream().mapToInt(ClusterDtoMap::getCount).sum()).as("zoom %d", zoom).isEqualTo(2);
+        }
+        // once cells are narrower than the degree left out on each side, the box without the antimeridian misses both
+        for (int zoom : new int[]{8, MarkerClusterIndex.MAX_CLUSTER_ZOOM}) {
+            List<ClusterDtoMap> between = index.findClusters(viewport(-20, -15, -179, 179, zoom), List.of(), null);
+
+            assertThat(between).as("zoom %d", zoom).isEmpty();
+        }
+    }
+
+    @Test
+    void keepsEventsBeyondTheMercatorLatitudeLimitInTheEdgeCells() {
+        ClusterPoint arctic = new ClusterPoint(1L, 89.9, 10.0, EventCategory.MUSIC);
+        MarkerClusterIndex index = index(arctic);
+
+        assertThat(index.findClusters(viewport(85, 90, 0, 20, 6), List.of(), null)).hasSize(1);
+    }
+
+    @Test
+    void countsOnlySelectedCategories() {
+        MarkerClusterIndex index = index(OPERA, GALLERY);
+
+        List<ClusterDtoMap> clusters = index.findClusters(viewport(-90, 90, -180, 180, 0),
+                List.of(EventCategory.EXHIBITIONS), null);
+
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.get(0).getCount()).isEqualTo(1);
+        assertThat(clusters.get(0).getLatitude()).isEqualTo(GALLERY.getLatitude());
+    }
+
+    @Test
+    void sumsUpOnlyTheGivenEventsOfACell() {
+        MarkerClusterIndex index = index(OPERA, GALLERY);
+
+        List<ClusterDtoMap> clusters = index.findClusters(viewport(-90, 90, -180, 180, 0),
+                List.of(), RoaringBitmap.bitmapOf(1));
+        List<ClusterDtoMap> none = index.findClusters(viewport(-90, 90, -180, 180, 0),
+                List.of(), new RoaringBitmap());
+
+        assertThat(clusters).hasSize(1);
+        assertThat(clusters.get(0).getCount()).isEqualTo(1);
+        assertThat(clusters.get(0).getLongitude()).isEqualTo(OPERA.getLongitude());
+        assertThat(clusters.get(0).getCategories()).isEqualTo(Map.of(EventCategory.MUSIC, 1));
+        assertThat(none).isEmpty();
+    }
+
+    private static MarkerClusterIndex index(ClusterPoint... points) {
+        EventRepository eventRepository = mock(EventRepository.class);
+        when(eventRepository.findAllClusterPoints()).thenReturn(List.of(points));
+        MarkerClusterIndex index = new MarkerClusterIndex(eventRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static MapViewport viewport(double minLatitude, double maxLatitude,
+                                        double minLongitude, double maxLongitude, int zoom) {
+        return MapViewport.of(minLatitude, maxLatitude, minLongitude, maxLongitude, zoom).orElseThrow();
+    }
+}
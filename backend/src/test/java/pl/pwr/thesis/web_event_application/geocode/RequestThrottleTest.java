@@ -0,0 +1,94 @@
+package pl.pwr.thesis.web_event_application.geocode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestThrottleTest {
+
+    @Test
+    void keepsAtMostMaxConcurrentRequestsInFlight() throws Exception {
+        RequestThrottle throttle = new RequestThrottle(2, 1000);
+        List<CompletableFuture<Integer>> requests = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            results.add(throttle.submit(() -> {
+                CompletableFuture<Integer> request = new CompletableFuture<>();
+                requests.add(request);
+                return request;
+            }));
+        }
+        awaitStarted(requests, 2);
+        Thread.sleep(100);
+        assertThat(requests).hasSize(2);
+
+        requests.get(0).complete(0);
+        awaitStarted(requests, 3);
+        Thread.sleep(100);
+        assertThat(requests).hasSize(3);
+
+        requests.get(1).complete(1);
+        requests.get(2).complete(2);
+        awaitStarted(requests, 4);
+        requests.get(3).complete(3);
+
+        assertThat(results).extracting(result -> result.get(1, TimeUnit.SECONDS)).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void spacesRequestStartsByTheRate() throws Exception {
+        RequestThrottle throttle = new RequestThrottle(10, 10);
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            results.add(throttle.submit(() -> {
+                starts.add(System.nanoTime());
+                return CompletableFuture.completedFuture(0L);
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        for (int i = 1; i < starts.size(); i++) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(starts.get(i) - starts.get(i - 1))).isGreaterThanOrEqualTo(90);
+        }
+    }
+
+    @Test
+    void failingRequestReleasesItsSlot() throws Exception {
+        RequestThrottle throttle = new RequestThrottle(1, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> failed = throttle.submit(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("geocoder down");
+        });
+        CompletableFuture<String> rejected = throttle.submit(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("bad address"));
+        });
+        CompletableFuture<String> next = throttle.submit(() -> CompletableFuture.completedFuture("ok"));
+
+        assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void awaitStarted(List<?> requests, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (requests.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(requests).hasSize(count);
+    }
+}
@@ -0,0 +1,123 @@
+package pl.pwr.thesis.web_event_application.machinelearning;
+
+import opennlp.tools.doccat.DoccatModel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedLinearClassifierTest {
+
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static List<LabeledText> samples;
+    private static HashedLinearClassifier linearClassifier;
+    private static MaxentTextClassifier maxentClassifier;
+
+    @BeforeAll
+    static void trainModels() throws IOException, URISyntaxException {
+        samples = ModelTrainingJob.readSamples(
+                Path.of(HashedLinearClassifierTest.class.getResource("/event_data.train").toURI()));
+        linearClassifier = HashedLinearClassifier.train("test", samples, samples);
+        maxentClassifier = MaxentTextClassifier.train("test", samples);
+    }
+
+    @Test
+    void givesOneProbabilityPerCategory() {
+        double[] probabilities = linearClassifier.probabilities(samples.get(0).getText());
+
+        assertThat(probabilities).hasSize(linearClassifier.categories().size());
+        for (double probability : probabilities) {
+            assertThat(probability).isBetween(0.0, 1.0);
+        }
+    }
+
+    @Test
+    void fitsTheTrainingSamples() {
+        double accuracy = ModelTrainingJob.accuracy(linearClassifier, samples);
+
+        assertThat(accuracy).isGreaterThan(0.9);
+    }
+
+    @Test
+    void writtenModelReadsBackWithTheSameProbabilities() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        linearClassifier.write(out);
+
+        HashedLinearClassifier read = HashedLinearClassifier.read("test", new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(read.categories()).isEqualTo(linearClassifier.categories());
+        assertThat(read.temperature()).isEqualTo(linearClassifier.temperature());
+        String text = samples.get(samples.size() - 1).getText();
+        assertThat(read.probabilities(text)).containsExactly(linearClassifier.probabilities(text));
+    }
+
+    @Test
+    void featuresIgnoreCaseAndAccents() {
+        int[] plain = new int[64];
+        int[] accented = new int[64];
+
+        int plainCount = HashedLinearClassifier.extractFeatures("koncert w lodzi", 0xFFFF, plain);
+        int accentedCount = HashedLinearClassifier.extractFeatures("Koncert w Łodzi", 0xFFFF, accented);
+
+        assertThat(accentedCount).isEqualTo(plainCount);
+        assertThat(accented).containsExactly(plain);
+    }
+
+    // the per event path the linear model replaced read the maxent model for every event
+    @Test
+    void predictsAtLeastTenTimesFasterThanReadingMaxentPerEvent() throws IOException {
+        ByteArrayOutputStream modelOut = new ByteArrayOutputStream();
+        maxentClassifier.write(modelOut);
+        byte[] model = modelOut.toByteArray();
+
+        double linearNanos = bestNanosPerPrediction(linearClassifier::probabilities, 20_000);
+        double perEventNanos = bestNanosPerPrediction(text -> {
+            try {
+                return new MaxentTextClassifier("per-event", new DoccatModel(new ByteArrayInputStream(model)))
+                        .probabilities(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, 100);
+
+        assertThat(perEventNanos).isGreaterThanOrEqualTo(10 * linearNanos);
+    }
+
+    // a loaded maxent model is the closer competitor, the margin is kept loose since timings on shared
+    // machines are noisy
+    @Test
+    void predictsFasterThanLoadedMaxent() {
+        double linearNanos = bestNanosPerPrediction(linearClassifier::probabilities, 20_000);
+        double maxentNanos = bestNanosPerPrediction(maxentClassifier::probabilities, 20_000);
+
+        assertThat(maxentNanos).isGreaterThanOrEqualTo(2 * linearNanos);
+    }
+
+    // the best of several rounds, so a pause of the machine does not decide the result; the first round warms up
+    private static double bestNanosPerPrediction(Function<String, double[]> classifier, int predictions) {
+        long best = Long.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round <= MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < predictions; i++) {
+                sink += classifier.apply(samples.get(i % samples.size()).getText())[0];
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        assertThat(sink).isFinite();
+        return (double) best / predictions;
+    }
+}
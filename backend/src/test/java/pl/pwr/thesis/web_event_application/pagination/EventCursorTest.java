@@ -0,0 +1,71 @@
+package pl.pwr.thesis.web_event_application.pagination;
+
+import org.junit.jupiter.api.Test;
+import pl.pwr.thesis.web_event_application.dto.list.EventDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCursorTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        EventCursor cursor = new EventCursor(LocalDateTime.of(2024, 6, 1, 19, 30, 15), 42);
+
+        EventCursor decoded = EventCursor.decode(cursor.encode());
+
+        assertThat(decoded.getStartDate()).isEqualTo(cursor.getStartDate());
+        assertThat(decoded.getId()).isEqualTo(42);
+    }
+
+    @Test
+    void encodesWithoutCharactersNeedingUrlEscaping() {
+        String encoded = new EventCursor(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999_000_000), 1234567).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void startsAfterTheLastEventOfThePage() {
+        EventDto eventDto = new EventDto();
+        eventDto.setId(7L);
+        eventDto.setStartDate("2024-06-01T19:30:00");
+
+        EventCursor cursor = EventCursor.of(eventDto);
+
+        assertThat(cursor.getStartDate()).isEqualTo(LocalDateTime.of(2024, 6, 1, 19, 30));
+        assertThat(cursor.getId()).isEqualTo(7);
+    }
+
+    @Test
+    void rejectsCursorThatIsNotBase64() {
+        assertThatThrownBy(() -> EventCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorWithoutSeparator() {
+        assertThatThrownBy(() -> EventCursor.decode(encode("2024-06-01T19:30")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorWithTamperedDate() {
+        assertThatThrownBy(() -> EventCursor.decode(encode("2024-13-01T19:30|42")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorWithTamperedId() {
+        assertThatThrownBy(() -> EventCursor.decode(encode("2024-06-01T19:30|42 OR 1=1")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pwr.thesis.web_event_application.repository.EventRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryEventSearchEngineTest {
+
+    private InMemoryEventSearchEngine searchEngine;
+
+    @BeforeEach
+    void buildIndex() {
+        EventRepository eventRepository = mock(EventRepository.class);
+        when(eventRepository.findAllSearchDocuments()).thenReturn(List.of(
+                new SearchDocument(1L, "Koncert jazzowy", "Filharmonia Łódzka", "Łódź"),
+                new SearchDocument(2L, "Wystawa fotografii", "Muzeum Narodowe we Wrocławiu", "Wrocław"),
+                new SearchDocument(3L, "Noc w operze", "Opera Wrocławska", "Wrocław"),
+                new SearchDocument(4L, "Żółta łódź", "Teatr Współczesny", "Szczecin")));
+        searchEngine = new InMemoryEventSearchEngine(eventRepository);
+        searchEngine.rebuild();
+    }
+
+    @Test
+    void matchesWithOrWithoutPolishDiacritics() {
+        assertThat(searchEngine.search("łódzka")).containsExactly(1L);
+        assertThat(searchEngine.search("lodzka")).containsExactly(1L);
+        assertThat(searchEngine.search("ZÓŁTA")).containsExactly(4L);
+        assertThat(searchEngine.search("zolta lodz")).containsExactly(4L);
+    }
+
+    @Test
+    void toleratesTyposInFoldedTerms() {
+        assertThat(searchEngine.search("filharmnia")).containsExactly(1L);
+        assertThat(searchEngine.search("wroclawsk")).contains(3L);
+        assertThat(searchEngine.search("wspolczesy")).containsExactly(4L);
+    }
+
+    @Test
+    void completesPrefixes() {
+        assertThat(searchEngine.search("wroc")).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void everyTokenHasToMatchInNameOrLocation() {
+        assertThat(searchEngine.search("jazzowy filharmonia")).containsExactly(1L);
+        assertThat(searchEngine.search("jazzowy opera")).isEmpty();
+    }
+
+    @Test
+    void matchesLocationNamesButNotCities() {
+        assertThat(searchEngine.search("opera")).containsExactly(3L);
+        assertThat(searchEngine.search("szczecin")).isEmpty();
+    }
+
+    @Test
+    void matchAllAgreesWithSearch() {
+        assertThat(searchEngine.matchAll("wroc").stream().boxed().toList()).containsExactly(2, 3);
+    }
+}
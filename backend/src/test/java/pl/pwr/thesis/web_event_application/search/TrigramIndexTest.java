@@ -0,0 +1,61 @@
+package pl.pwr.thesis.web_event_application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    void findsTermsOneTypoAway() {
+        TrigramIndex index = index("filharmonia", "filharmonii", "opera");
+
+        Map<String, Integer> similar = index.findSimilarTerms("filharmnia");
+
+        assertThat(similar).containsEntry("filharmonia", 1).doesNotContainKey("opera");
+    }
+
+    @Test
+    void allowsTwoEditsForLongTermsOnly() {
+        TrigramIndex index = index("wroclawska", "teatr");
+
+        assertThat(index.findSimilarTerms("wroclawsky")).containsEntry("wroclawska", 1);
+        assertThat(index.findSimilarTerms("wroclavsky")).containsEntry("wroclawska", 2);
+        assertThat(index.findSimilarTerms("tiatro")).isEmpty();
+    }
+
+    @Test
+    void leavesExactAndShortTermsToExactMatching() {
+        TrigramIndex index = index("jazz", "kino");
+
+        assertThat(index.findSimilarTerms("jazz")).isEmpty();
+        assertThat(index.findSimilarTerms("kin")).isEmpty();
+    }
+
+    @Test
+    void forgetsRemovedTerms() {
+        TrigramIndex index = index("koncert");
+
+        index.removeTerm("koncert");
+
+        assertThat(index.findSimilarTerms("koncer")).isEmpty();
+    }
+
+    @Test
+    void editDistanceGrowsWithTermLength() {
+        assertThat(TrigramIndex.maxEdits(3)).isZero();
+        assertThat(TrigramIndex.maxEdits(4)).isEqualTo(1);
+        assertThat(TrigramIndex.maxEdits(7)).isEqualTo(1);
+        assertThat(TrigramIndex.maxEdits(8)).isEqualTo(2);
+    }
+
+    private static TrigramIndex index(String... terms) {
+        TrigramIndex index = new TrigramIndex();
+        for (String term : terms) {
+            index.addTerm(term);
+        }
+        return index;
+    }
+}
@@ -43,6 +43,66 @@ INSERT INTO `addresses` VALUES (14167,'al. 3 Maja 1',4005),(14102,'Al. Bandurski
 /*!40000 ALTER TABLE `addresses` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `archived_events`
+--
+
+DROP TABLE IF EXISTS `archived_events`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `archived_events` (
+  `id` int NOT NULL,
+  `name` varchar(255) NOT NULL,
+  `description` text NOT NULL,
+  `image` varchar(255) NOT NULL,
+  `start_date` datetime NOT NULL,
+  `end_date` datetime NOT NULL,
+  `location_id` int NOT NULL,
+  `category_id` int NOT NULL,
+  `archived_at` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_archived_event_end_date` (`end_date`),
+  KEY `archived_location_foreign_key_idx` (`location_id`),
+  CONSTRAINT `archived_category_foreign_key` FOREIGN KEY (`category_id`) REFERENCES `categories` (`id`),
+  CONSTRAINT `archived_location_foreign_key` FOREIGN KEY (`location_id`) REFERENCES `locations` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci ROW_FORMAT=COMPRESSED;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `archived_reactions`
+--
+
+DROP TABLE IF EXISTS `archived_reactions`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `archived_reactions` (
+  `user_id` int NOT NULL,
+  `event_id` int NOT NULL,
+  `type` varchar(45) NOT NULL,
+  UNIQUE KEY `archived_user_event_unique` (`user_id`,`event_id`),
+  KEY `archived_reaction_event_idx` (`event_id`),
+  CONSTRAINT `archived_reaction_event_foreign_key` FOREIGN KEY (`event_id`) REFERENCES `archived_events` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `archived_reaction_user_foreign_key` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `archived_users_events`
+--
+
+DROP TABLE IF EXISTS `archived_users_events`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `archived_users_events` (
+  `user_id` int NOT NULL,
+  `event_id` int NOT NULL,
+  UNIQUE KEY `archived_unique_user_event` (`user_id`,`event_id`),
+  KEY `archived_favourite_event_idx` (`event_id`),
+  CONSTRAINT `archived_favourite_event_foreign_key` FOREIGN KEY (`event_id`) REFERENCES `archived_events` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `archived_favourite_user_foreign_key` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `categories`
 --
@@ -98,6 +158,24 @@ INSERT INTO `cities` VALUES (4004,'Warsaw',52.237695,21.005427),(4005,'Cracow',5
 /*!40000 ALTER TABLE `cities` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `classification_cache`
+--
+
+DROP TABLE IF EXISTS `classification_cache`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `classification_cache` (
+  `content_hash` char(64) NOT NULL,
+  `category` varchar(45) NOT NULL,
+  `confidence` double NOT NULL,
+  `labels` varchar(255) NOT NULL,
+  `model_version` varchar(32) NOT NULL,
+  `classified_at` datetime NOT NULL,
+  PRIMARY KEY (`content_hash`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `events`
 --
@@ -119,6 +197,9 @@ CREATE TABLE `events` (
   KEY `location_foreign_key_idx` (`location_id`),
   KEY `category_foregin_key_idx` (`category_id`),
   KEY `idx_event_name` (`name`),
+  KEY `idx_event_start_date_id` (`start_date`,`id`),
+  KEY `idx_event_end_date` (`end_date`),
+  FULLTEXT KEY `ft_event_name` (`name`),
   CONSTRAINT `category_foregin_key` FOREIGN KEY (`category_id`) REFERENCES `categories` (`id`),
   CONSTRAINT `location_foreign_key` FOREIGN KEY (`location_id`) REFERENCES `locations` (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=32403 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -134,6 +215,22 @@ INSERT INTO `events` VALUES (31743,'Andrzejki UW x UKSW','Half of the winter sem
 /*!40000 ALTER TABLE `events` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `geocode_cache`
+--
+
+DROP TABLE IF EXISTS `geocode_cache`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `geocode_cache` (
+  `query_key` varchar(400) NOT NULL,
+  `latitude` decimal(9,6) DEFAULT NULL,
+  `longitude` decimal(9,6) DEFAULT NULL,
+  `resolved_at` datetime NOT NULL,
+  PRIMARY KEY (`query_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `locations`
 --
@@ -151,6 +248,8 @@ CREATE TABLE `locations` (
   UNIQUE KEY `unique_location_address` (`address_id`,`name`),
   KEY `address_foreign_key_idx` (`address_id`) /*!80000 INVISIBLE */,
   KEY `idx_location_name` (`name`),
+  KEY `idx_location_lat_lng` (`latitude`,`longitude`),
+  FULLTEXT KEY `ft_location_name` (`name`),
   CONSTRAINT `address_foreign_key` FOREIGN KEY (`address_id`) REFERENCES `addresses` (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=14819 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;